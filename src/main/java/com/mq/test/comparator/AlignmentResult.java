@@ -0,0 +1,78 @@
+package com.mq.test.comparator;
+
+/**
+ * Pairing of two queue snapshots: matched position pairs plus the positions present in only one queue.
+ * Matched pairs are held as two parallel int arrays ordered by Queue1 position.
+ */
+public class AlignmentResult {
+    
+    /**
+     * How the pairing was produced: joined on a message key, or by an ordered sequence diff
+     */
+    public enum Mode {
+        KEY,
+        SEQUENCE
+    }
+    
+    private final int[] queue1Positions;
+    private final int[] queue2Positions;
+    private final int matchedCount;
+    private final int[] queue1Only;
+    private final int[] queue2Only;
+    private final Mode mode;
+    
+    public AlignmentResult(int[] queue1Positions, int[] queue2Positions, int matchedCount,
+                           int[] queue1Only, int[] queue2Only) {
+        this(queue1Positions, queue2Positions, matchedCount, queue1Only, queue2Only, Mode.KEY);
+    }
+    
+    public AlignmentResult(int[] queue1Positions, int[] queue2Positions, int matchedCount,
+                           int[] queue1Only, int[] queue2Only, Mode mode) {
+        this.queue1Positions = queue1Positions;
+        this.queue2Positions = queue2Positions;
+        this.matchedCount = matchedCount;
+        this.queue1Only = queue1Only;
+        this.queue2Only = queue2Only;
+        this.mode = mode;
+    }
+    
+    public int getMatchedCount() {
+        return matchedCount;
+    }
+    
+    /**
+     * Queue1 position of the given matched pair
+     */
+    public int getQueue1Position(int pair) {
+        return queue1Positions[pair];
+    }
+    
+    /**
+     * Queue2 position of the given matched pair
+     */
+    public int getQueue2Position(int pair) {
+        return queue2Positions[pair];
+    }
+    
+    /**
+     * Ascending Queue1 positions with no counterpart in Queue2
+     */
+    public int[] getQueue1Only() {
+        return queue1Only;
+    }
+    
+    /**
+     * Ascending Queue2 positions with no counterpart in Queue1
+     */
+    public int[] getQueue2Only() {
+        return queue2Only;
+    }
+    
+    public Mode getMode() {
+        return mode;
+    }
+    
+    public boolean isFullyMatched() {
+        return queue1Only.length == 0 && queue2Only.length == 0;
+    }
+}
\ No newline at end of file
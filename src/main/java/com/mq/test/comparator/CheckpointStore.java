@@ -0,0 +1,101 @@
+package com.mq.test.comparator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Local file holding the checkpoint of one queue pair's streaming comparison. Each save writes a
+ * temporary file and renames it over the previous checkpoint, so a crash mid-write leaves the last
+ * complete checkpoint in place.
+ */
+public class CheckpointStore {
+    private final Path path;
+    private final int interval;
+    private final String queue1Name;
+    private final String queue2Name;
+    
+    /**
+     * @param path Checkpoint file
+     * @param interval Messages read between checkpoints
+     * @param queue1Name Queue1 of the compared pair; checkpoints of other pairs are ignored
+     * @param queue2Name Queue2 of the compared pair
+     */
+    public CheckpointStore(Path path, int interval, String queue1Name, String queue2Name) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        this.path = path;
+        this.interval = interval;
+        this.queue1Name = queue1Name;
+        this.queue2Name = queue2Name;
+    }
+    
+    /**
+     * Load the checkpoint left by an interrupted run of the same queue pair
+     *
+     * @return The checkpoint, or {@code null} if there is none for this queue pair
+     */
+    public ComparisonCheckpoint load(int maxDifferences) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        }
+        if (!queue1Name.equals(props.getProperty("queue1.name")) || !queue2Name.equals(props.getProperty("queue2.name"))) {
+            return null;
+        }
+        return ComparisonCheckpoint.fromProperties(props, maxDifferences);
+    }
+    
+    /**
+     * Atomically replace the checkpoint file
+     */
+    public void save(ComparisonCheckpoint checkpoint) {
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                checkpoint.toProperties().store(out, "Comparison checkpoint " + queue1Name + " / " + queue2Name);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint " + path, e);
+        }
+    }
+    
+    /**
+     * Remove the checkpoint once the comparison has completed
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete checkpoint " + path, e);
+        }
+    }
+    
+    public int getInterval() {
+        return interval;
+    }
+    
+    public String getQueue1Name() {
+        return queue1Name;
+    }
+    
+    public String getQueue2Name() {
+        return queue2Name;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.MQMessage;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32C;
+
+/**
+ * Digest algorithms for payload checksum comparison, computed over the raw payload bytes
+ */
+public enum ChecksumAlgorithm {
+    
+    /** 32-bit CRC with hardware support on most CPUs; fastest, but collisions are expected at high volumes */
+    CRC32C("CRC32C") {
+        @Override
+        public byte[] digest(byte[] data) {
+            CRC32C crc = new CRC32C();
+            crc.update(data, 0, data.length);
+            return ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()).array();
+        }
+    },
+    
+    /** 64-bit non-cryptographic hash; fast with a negligible accidental collision rate */
+    XXHASH64("xxHash64") {
+        @Override
+        public byte[] digest(byte[] data) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(XxHash64.hash(data, 0L)).array();
+        }
+    },
+    
+    /** Cryptographic digest; slowest, but trustworthy enough to stand in for a full payload comparison */
+    SHA_256("SHA-256") {
+        @Override
+        public byte[] digest(byte[] data) {
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(data);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    };
+    
+    private final String displayName;
+    
+    ChecksumAlgorithm(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    /**
+     * Digest of a byte array
+     */
+    public abstract byte[] digest(byte[] data);
+    
+    /**
+     * Digest of a message payload, computed once per message and algorithm and cached on the message
+     */
+    public byte[] digestOf(MQMessage message) {
+        byte[] cached = message.getCachedDigest(displayName);
+        if (cached == null) {
+            byte[] payload = message.getPayloadBytes();
+            cached = digest(payload == null ? new byte[0] : payload);
+            message.cacheDigest(displayName, cached);
+        }
+        return cached;
+    }
+    
+    /**
+     * Render a digest as lowercase hex
+     */
+    public static String toHex(byte[] digest) {
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.util.MessageColumns;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs a {@link ComparisonPlan} over two {@link MessageColumns} stores by position. Header and payload
+ * checks run as one loop per check over the primitive columns and off-heap payloads; properties,
+ * structure and checksum checks fall back to the {@link ComparisonEngine} over messages rebuilt per pair.
+ * Results are identical to comparing the original message lists.
+ */
+final class ColumnComparison {
+    
+    private static final Set<ComparisonCheck> COLUMN_CHECKS = EnumSet.of(ComparisonCheck.PAYLOAD,
+        ComparisonCheck.MESSAGE_ID, ComparisonCheck.CORRELATION_ID, ComparisonCheck.PRIORITY,
+        ComparisonCheck.ORDERING, ComparisonCheck.TIMESTAMP, ComparisonCheck.FORMAT,
+        ComparisonCheck.PAYLOAD_LENGTH);
+    
+    private ColumnComparison() {}
+    
+    static Map<ComparisonCheck, ComparisonResult> run(ComparisonPlan plan, MessageColumns queue1,
+                                                      MessageColumns queue2) {
+        ComparisonEngine engine = new ComparisonEngine(plan);
+        int pairs = Math.min(queue1.size(), queue2.size());
+        
+        if (plan.includes(ComparisonCheck.PAYLOAD)) {
+            comparePayloads(engine, queue1, queue2, pairs);
+        }
+        if (plan.includes(ComparisonCheck.MESSAGE_ID)) {
+            for (int i = 0; i < pairs; i++) {
+                if (!queue1.sameMessageId(i, queue2, i)) {
+                    engine.messageIdMismatch(i, queue1.getMessageId(i).toHex(), queue2.getMessageId(i).toHex());
+                }
+            }
+        }
+        if (plan.includes(ComparisonCheck.CORRELATION_ID)) {
+            for (int i = 0; i < pairs; i++) {
+                if (!queue1.sameCorrelationId(i, queue2, i)) {
+                    engine.correlationIdMismatch(i, queue1.getCorrelationId(i).toHex(),
+                        queue2.getCorrelationId(i).toHex());
+                }
+            }
+        }
+        if (plan.includes(ComparisonCheck.PRIORITY)) {
+            comparePriorities(engine, queue1, queue2, pairs);
+        }
+        if (plan.includes(ComparisonCheck.ORDERING)) {
+            for (int i = 1; i < pairs; i++) {
+                boolean order1 = queue1.getTimestamp(i) >= queue1.getTimestamp(i - 1);
+                boolean order2 = queue2.getTimestamp(i) >= queue2.getTimestamp(i - 1);
+                if (order1 != order2) {
+                    engine.orderingMismatch(i, order1, order2);
+                }
+            }
+        }
+        if (plan.includes(ComparisonCheck.TIMESTAMP)) {
+            compareTimestamps(engine, queue1, queue2, pairs, plan.getTimestampToleranceMs());
+        }
+        if (plan.includes(ComparisonCheck.FORMAT)) {
+            compareFormats(engine, queue1, queue2, pairs);
+        }
+        if (plan.includes(ComparisonCheck.PAYLOAD_LENGTH)) {
+            for (int i = 0; i < pairs; i++) {
+                if (queue1.getPayloadLength(i) != queue2.getPayloadLength(i)) {
+                    engine.payloadLengthMismatch(i, queue1.getPayloadLength(i), queue2.getPayloadLength(i));
+                }
+            }
+        }
+        
+        Map<ComparisonCheck, ComparisonResult> results = engine.getResults();
+        Set<ComparisonCheck> messageChecks = EnumSet.noneOf(ComparisonCheck.class);
+        for (ComparisonCheck check : plan.getChecks()) {
+            if (!COLUMN_CHECKS.contains(check)) {
+                messageChecks.add(check);
+            }
+        }
+        if (!messageChecks.isEmpty()) {
+            ComparisonPlan rest = new ComparisonPlan(messageChecks, plan.getTimestampToleranceMs(),
+                plan.getChecksumAlgorithm(), plan.getMaxDifferences(), plan.getPropertyFilter());
+            results.putAll(ComparisonEngine.run(rest, queue1.asList(), queue2.asList()));
+        }
+        return results;
+    }
+    
+    private static void comparePayloads(ComparisonEngine engine, MessageColumns queue1, MessageColumns queue2,
+                                        int pairs) {
+        for (int i = 0; i < pairs; i++) {
+            boolean equal = queue1.getCharacterSet(i) == queue2.getCharacterSet(i)
+                ? queue1.getPayload(i).equals(queue2.getPayload(i))
+                : queue1.getPayloadText(i).equals(queue2.getPayloadText(i));
+            if (!equal) {
+                engine.payloadMismatch(i, queue1.getPayloadText(i), queue2.getPayloadText(i));
+            }
+        }
+    }
+    
+    private static void comparePriorities(ComparisonEngine engine, MessageColumns queue1, MessageColumns queue2,
+                                  int pairs) {
+        for (int i = 0; i < pairs; i++) {
+            int priority1 = queue1.getPriority(i);
+            int priority2 = queue2.getPriority(i);
+            if (priority1 != priority2) {
+                engine.priorityMismatch(i, priority1, priority2);
+            }
+        }
+    }
+    
+    private static void compareTimestamps(ComparisonEngine engine, MessageColumns queue1, MessageColumns queue2,
+                                  int pairs, long toleranceMs) {
+        for (int i = 0; i < pairs; i++) {
+            long ts1 = queue1.getTimestamp(i);
+            long ts2 = queue2.getTimestamp(i);
+            if (Math.abs(ts1 - ts2) > toleranceMs) {
+                engine.timestampMismatch(i, ts1, ts2);
+            }
+        }
+    }
+    
+    /**
+     * Compare dictionary codes, translating Queue1 codes into Queue2's dictionary once up front
+     */
+    private static void compareFormats(ComparisonEngine engine, MessageColumns queue1, MessageColumns queue2, int pairs) {
+        int[] translated = new int[queue1.getFormats().size()];
+        for (int code = 0; code < translated.length; code++) {
+            translated[code] = queue2.findFormatCode(queue1.getFormats().get(code));
+        }
+        for (int i = 0; i < pairs; i++) {
+            if (translated[queue1.getFormatCode(i)] != queue2.getFormatCode(i)) {
+                engine.formatMismatch(i, queue1.getFormat(i), queue2.getFormat(i));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.mq.test.comparator;
+
+/**
+ * Per-message checks that can be evaluated pairwise over two queue snapshots
+ */
+public enum ComparisonCheck {
+    PAYLOAD("Payload comparison"),
+    MESSAGE_ID("Message ID comparison"),
+    CORRELATION_ID("Correlation ID comparison"),
+    PRIORITY("Priority comparison"),
+    ORDERING("Message ordering comparison"),
+    FORMAT("Message format comparison"),
+    TIMESTAMP("Timestamp comparison"),
+    PROPERTIES("Message properties comparison"),
+    PAYLOAD_LENGTH("Payload length comparison"),
+    PAYLOAD_STRUCTURE("Payload structure comparison (JSON/XML)"),
+    PAYLOAD_CHECKSUM("Payload checksum comparison");
+    
+    private final String description;
+    
+    ComparisonCheck(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+}
\ No newline at end of file
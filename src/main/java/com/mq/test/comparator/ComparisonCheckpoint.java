@@ -0,0 +1,183 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.Difference;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Progress of a streaming comparison: how far each queue was read, the last message read from each
+ * (the browse position to resume after), running content fingerprints and the partial check results.
+ * Recorded differences are kept as report lines only.
+ */
+public class ComparisonCheckpoint {
+    private final String queue1Name;
+    private final String queue2Name;
+    private final int compared;
+    private final int queue1Count;
+    private final int queue2Count;
+    private final String lastMessageId1;
+    private final String lastMessageId2;
+    private final long lastTimestamp1;
+    private final long lastTimestamp2;
+    private final long fingerprint1;
+    private final long fingerprint2;
+    private final Map<ComparisonCheck, ComparisonResult> results;
+    
+    public ComparisonCheckpoint(String queue1Name, String queue2Name, int compared, int queue1Count, int queue2Count,
+                                String lastMessageId1, String lastMessageId2, long lastTimestamp1, long lastTimestamp2,
+                                long fingerprint1, long fingerprint2, Map<ComparisonCheck, ComparisonResult> results) {
+        this.queue1Name = queue1Name;
+        this.queue2Name = queue2Name;
+        this.compared = compared;
+        this.queue1Count = queue1Count;
+        this.queue2Count = queue2Count;
+        this.lastMessageId1 = lastMessageId1;
+        this.lastMessageId2 = lastMessageId2;
+        this.lastTimestamp1 = lastTimestamp1;
+        this.lastTimestamp2 = lastTimestamp2;
+        this.fingerprint1 = fingerprint1;
+        this.fingerprint2 = fingerprint2;
+        this.results = results;
+    }
+    
+    public String getQueue1Name() {
+        return queue1Name;
+    }
+    
+    public String getQueue2Name() {
+        return queue2Name;
+    }
+    
+    /**
+     * Number of message pairs compared
+     */
+    public int getCompared() {
+        return compared;
+    }
+    
+    public int getQueue1Count() {
+        return queue1Count;
+    }
+    
+    public int getQueue2Count() {
+        return queue2Count;
+    }
+    
+    /**
+     * Hex message ID of the last message read from Queue1, or {@code null} if none was read
+     */
+    public String getLastMessageId1() {
+        return lastMessageId1;
+    }
+    
+    /**
+     * Hex message ID of the last message read from Queue2, or {@code null} if none was read
+     */
+    public String getLastMessageId2() {
+        return lastMessageId2;
+    }
+    
+    /**
+     * Put timestamp of the Queue1 message in the last compared pair, seeding the ordering check on resume
+     */
+    public long getLastTimestamp1() {
+        return lastTimestamp1;
+    }
+    
+    public long getLastTimestamp2() {
+        return lastTimestamp2;
+    }
+    
+    /**
+     * Running payload fingerprint of Queue1, see {@link StreamComparison#getQueue1Fingerprint()}
+     */
+    public long getFingerprint1() {
+        return fingerprint1;
+    }
+    
+    public long getFingerprint2() {
+        return fingerprint2;
+    }
+    
+    public Map<ComparisonCheck, ComparisonResult> getResults() {
+        return Collections.unmodifiableMap(results);
+    }
+    
+    Properties toProperties() {
+        Properties props = new Properties();
+        props.setProperty("queue1.name", queue1Name);
+        props.setProperty("queue2.name", queue2Name);
+        props.setProperty("compared", Integer.toString(compared));
+        props.setProperty("queue1.count", Integer.toString(queue1Count));
+        props.setProperty("queue2.count", Integer.toString(queue2Count));
+        if (lastMessageId1 != null) {
+            props.setProperty("queue1.last.message.id", lastMessageId1);
+        }
+        if (lastMessageId2 != null) {
+            props.setProperty("queue2.last.message.id", lastMessageId2);
+        }
+        props.setProperty("queue1.last.timestamp", Long.toString(lastTimestamp1));
+        props.setProperty("queue2.last.timestamp", Long.toString(lastTimestamp2));
+        props.setProperty("queue1.fingerprint", Long.toHexString(fingerprint1));
+        props.setProperty("queue2.fingerprint", Long.toHexString(fingerprint2));
+        
+        for (Map.Entry<ComparisonCheck, ComparisonResult> entry : results.entrySet()) {
+            String prefix = "check." + entry.getKey().name() + ".";
+            ComparisonResult result = entry.getValue();
+            props.setProperty(prefix + "passed", Boolean.toString(result.isPassed()));
+            props.setProperty(prefix + "message", result.getMessage());
+            props.setProperty(prefix + "total", Long.toString(result.getTotalDifferences()));
+            result.getFieldCounts().forEach((field, count) ->
+                props.setProperty(prefix + "field." + field, Long.toString(count)));
+            List<String> lines = result.getDifferences();
+            for (int i = 0; i < lines.size(); i++) {
+                props.setProperty(prefix + "diff." + i, lines.get(i));
+            }
+        }
+        return props;
+    }
+    
+    static ComparisonCheckpoint fromProperties(Properties props, int maxDifferences) {
+        Map<ComparisonCheck, ComparisonResult> results = new EnumMap<>(ComparisonCheck.class);
+        for (ComparisonCheck check : ComparisonCheck.values()) {
+            String prefix = "check." + check.name() + ".";
+            String passed = props.getProperty(prefix + "passed");
+            if (passed == null) {
+                continue;
+            }
+            ComparisonResult result = new ComparisonResult(Boolean.parseBoolean(passed),
+                props.getProperty(prefix + "message"), maxDifferences);
+            for (int i = 0; props.containsKey(prefix + "diff." + i); i++) {
+                result.addDifference(Difference.text(props.getProperty(prefix + "diff." + i)));
+            }
+            Map<String, Long> fieldCounts = new TreeMap<>();
+            for (String key : props.stringPropertyNames()) {
+                if (key.startsWith(prefix + "field.")) {
+                    fieldCounts.put(key.substring(prefix.length() + 6), Long.parseLong(props.getProperty(key)));
+                }
+            }
+            result.restoreCounts(Long.parseLong(props.getProperty(prefix + "total")), fieldCounts);
+            results.put(check, result);
+        }
+        
+        return new ComparisonCheckpoint(
+            props.getProperty("queue1.name"),
+            props.getProperty("queue2.name"),
+            Integer.parseInt(props.getProperty("compared")),
+            Integer.parseInt(props.getProperty("queue1.count")),
+            Integer.parseInt(props.getProperty("queue2.count")),
+            props.getProperty("queue1.last.message.id"),
+            props.getProperty("queue2.last.message.id"),
+            Long.parseLong(props.getProperty("queue1.last.timestamp")),
+            Long.parseLong(props.getProperty("queue2.last.timestamp")),
+            Long.parseUnsignedLong(props.getProperty("queue1.fingerprint"), 16),
+            Long.parseUnsignedLong(props.getProperty("queue2.fingerprint"), 16),
+            results);
+    }
+}
\ No newline at end of file
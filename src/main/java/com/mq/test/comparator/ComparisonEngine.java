@@ -0,0 +1,494 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.CcsidCharsets;
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.Difference;
+import com.mq.test.model.MQMessage;
+import com.mq.test.model.MessageProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates every check of a {@link ComparisonPlan} in a single pass over a pair of queue snapshots.
+ * Each message's fields are fetched once per pair and shared by all checks that need them.
+ * Payloads are compared as raw bytes when both messages share a CCSID; text is only decoded for
+ * differing encodings or to report a mismatch.
+ */
+public class ComparisonEngine {
+    
+    private static final ComparisonCheck[] CHECKS = ComparisonCheck.values();
+    
+    private final ComparisonPlan plan;
+    private final ComparisonResult[] results;
+    
+    private final boolean checkPayload;
+    private final boolean checkMessageId;
+    private final boolean checkCorrelationId;
+    private final boolean checkPriority;
+    private final boolean checkOrdering;
+    private final boolean checkFormat;
+    private final boolean checkTimestamp;
+    private final boolean checkProperties;
+    private final boolean checkPayloadLength;
+    private final boolean checkPayloadStructure;
+    private final boolean checkPayloadChecksum;
+    private final boolean needsPayload;
+    private final boolean needsTimestamp;
+    
+    private boolean hasPrevious;
+    private long previousTimestamp1;
+    private long previousTimestamp2;
+    
+    public ComparisonEngine(ComparisonPlan plan) {
+        this.plan = plan;
+        this.results = new ComparisonResult[CHECKS.length];
+        for (ComparisonCheck check : plan.getChecks()) {
+            results[check.ordinal()] = new ComparisonResult(true, initialMessage(check), plan.getMaxDifferences());
+        }
+        
+        checkPayload = plan.includes(ComparisonCheck.PAYLOAD);
+        checkMessageId = plan.includes(ComparisonCheck.MESSAGE_ID);
+        checkCorrelationId = plan.includes(ComparisonCheck.CORRELATION_ID);
+        checkPriority = plan.includes(ComparisonCheck.PRIORITY);
+        checkOrdering = plan.includes(ComparisonCheck.ORDERING);
+        checkFormat = plan.includes(ComparisonCheck.FORMAT);
+        checkTimestamp = plan.includes(ComparisonCheck.TIMESTAMP);
+        checkProperties = plan.includes(ComparisonCheck.PROPERTIES);
+        checkPayloadLength = plan.includes(ComparisonCheck.PAYLOAD_LENGTH);
+        checkPayloadStructure = plan.includes(ComparisonCheck.PAYLOAD_STRUCTURE);
+        checkPayloadChecksum = plan.includes(ComparisonCheck.PAYLOAD_CHECKSUM);
+        needsPayload = checkPayload || checkPayloadLength || checkPayloadStructure || checkPayloadChecksum;
+        needsTimestamp = checkOrdering || checkTimestamp;
+    }
+    
+    /**
+     * Run the plan over two positional snapshots, comparing indices 0 to min(size1, size2) - 1
+     */
+    public static Map<ComparisonCheck, ComparisonResult> run(ComparisonPlan plan,
+                                                             List<MQMessage> queue1, List<MQMessage> queue2) {
+        return run(plan, queue1, queue2, null);
+    }
+    
+    /**
+     * Run the plan over the matched pairs of an alignment; differences are labelled with Queue1 positions.
+     * A {@code null} alignment compares by position.
+     */
+    public static Map<ComparisonCheck, ComparisonResult> run(ComparisonPlan plan,
+                                                             List<MQMessage> queue1, List<MQMessage> queue2,
+                                                             AlignmentResult alignment) {
+        ComparisonEngine engine = new ComparisonEngine(plan);
+        engine.compareRange(queue1, queue2, alignment, 0, pairCount(queue1, queue2, alignment));
+        return engine.getResults();
+    }
+    
+    /**
+     * Run the plan in parallel on the common ForkJoinPool
+     */
+    public static Map<ComparisonCheck, ComparisonResult> runParallel(ComparisonPlan plan,
+                                                                     List<MQMessage> queue1, List<MQMessage> queue2,
+                                                                     int chunkSize) {
+        return runParallel(plan, queue1, queue2, null, ForkJoinPool.commonPool(), chunkSize);
+    }
+    
+    /**
+     * Run the plan in parallel by splitting the pair range into chunks of {@code chunkSize} pairs.
+     * Chunk results are merged in positional order, so the outcome is identical to {@link #run}.
+     * A {@code null} alignment compares by position.
+     */
+    public static Map<ComparisonCheck, ComparisonResult> runParallel(ComparisonPlan plan,
+                                                                     List<MQMessage> queue1, List<MQMessage> queue2,
+                                                                     AlignmentResult alignment,
+                                                                     ExecutorService executor, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        int pairs = pairCount(queue1, queue2, alignment);
+        if (pairs <= chunkSize) {
+            return run(plan, queue1, queue2, alignment);
+        }
+        
+        List<Future<ComparisonEngine>> chunks = new ArrayList<>();
+        for (int from = 0; from < pairs; from += chunkSize) {
+            final int start = from;
+            final int end = Math.min(from + chunkSize, pairs);
+            chunks.add(executor.submit(() -> {
+                ComparisonEngine chunk = new ComparisonEngine(plan);
+                if (start > 0) {
+                    chunk.prime(queue1.get(position1(alignment, start - 1)), queue2.get(position2(alignment, start - 1)));
+                }
+                chunk.compareRange(queue1, queue2, alignment, start, end);
+                return chunk;
+            }));
+        }
+        
+        ComparisonEngine merged = new ComparisonEngine(plan);
+        try {
+            for (Future<ComparisonEngine> chunk : chunks) {
+                merged.merge(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel comparison interrupted", e);
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Parallel comparison failed", cause);
+        }
+        return merged.getResults();
+    }
+    
+    private void compareRange(List<MQMessage> queue1, List<MQMessage> queue2, AlignmentResult alignment,
+                              int from, int to) {
+        for (int pair = from; pair < to; pair++) {
+            int i = position1(alignment, pair);
+            compare(i, queue1.get(i), queue2.get(position2(alignment, pair)));
+        }
+    }
+    
+    private static int pairCount(List<MQMessage> queue1, List<MQMessage> queue2, AlignmentResult alignment) {
+        return alignment == null ? Math.min(queue1.size(), queue2.size()) : alignment.getMatchedCount();
+    }
+    
+    private static int position1(AlignmentResult alignment, int pair) {
+        return alignment == null ? pair : alignment.getQueue1Position(pair);
+    }
+    
+    private static int position2(AlignmentResult alignment, int pair) {
+        return alignment == null ? pair : alignment.getQueue2Position(pair);
+    }
+    
+    /**
+     * Seed the pair preceding the first compared pair, so ordering checks at a chunk boundary
+     * see the same predecessor as a sequential run
+     */
+    public void prime(MQMessage previous1, MQMessage previous2) {
+        previousTimestamp1 = previous1.getTimestamp();
+        previousTimestamp2 = previous2.getTimestamp();
+        hasPrevious = true;
+    }
+    
+    /**
+     * Continue from a checkpoint: take over its partial results and the timestamps of the last compared pair
+     */
+    public void resume(ComparisonCheckpoint checkpoint) {
+        checkpoint.getResults().forEach((check, result) -> {
+            if (results[check.ordinal()] != null) {
+                results[check.ordinal()] = result;
+            }
+        });
+        if (checkpoint.getCompared() > 0) {
+            previousTimestamp1 = checkpoint.getLastTimestamp1();
+            previousTimestamp2 = checkpoint.getLastTimestamp2();
+            hasPrevious = true;
+        }
+    }
+    
+    /**
+     * Merge the results of an engine that compared the positions immediately following this one
+     */
+    public void merge(ComparisonEngine later) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null && later.results[i] != null) {
+                results[i].merge(later.results[i]);
+            }
+        }
+    }
+    
+    /**
+     * Accept a pair whose other checked fields are already known to match, evaluating only ordering and
+     * the timestamp tolerance. Returns {@code false} without recording anything if either would fail;
+     * the pair must then be passed to {@link #compare} instead.
+     */
+    boolean advance(long timestamp1, long timestamp2) {
+        if (checkOrdering && hasPrevious
+                && (timestamp1 >= previousTimestamp1) != (timestamp2 >= previousTimestamp2)) {
+            return false;
+        }
+        if (checkTimestamp && Math.abs(timestamp1 - timestamp2) > plan.getTimestampToleranceMs()) {
+            return false;
+        }
+        previousTimestamp1 = timestamp1;
+        previousTimestamp2 = timestamp2;
+        hasPrevious = true;
+        return true;
+    }
+    
+    /**
+     * Compare one message pair. Pairs must be supplied in positional order.
+     */
+    public void compare(int index, MQMessage message1, MQMessage message2) {
+        byte[] payload1 = needsPayload ? message1.getPayloadBytes() : null;
+        byte[] payload2 = needsPayload ? message2.getPayloadBytes() : null;
+        boolean sameEncoding = message1.getCharacterSet() == message2.getCharacterSet();
+        
+        if (checkPayload && !(sameEncoding ? Arrays.equals(payload1, payload2)
+                                           : message1.getPayload().equals(message2.getPayload()))) {
+            payloadMismatch(index, message1.getPayload(), message2.getPayload());
+        }
+        
+        if (checkMessageId && !message1.sameMessageId(message2)) {
+            messageIdMismatch(index, message1.getMessageId(), message2.getMessageId());
+        }
+        
+        if (checkCorrelationId && !message1.sameCorrelationId(message2)) {
+            correlationIdMismatch(index, message1.getCorrelationId(), message2.getCorrelationId());
+        }
+        
+        if (checkPriority) {
+            int priority1 = message1.getPriority();
+            int priority2 = message2.getPriority();
+            if (priority1 != priority2) {
+                priorityMismatch(index, priority1, priority2);
+            }
+        }
+        
+        if (needsTimestamp) {
+            long ts1 = message1.getTimestamp();
+            long ts2 = message2.getTimestamp();
+            if (checkOrdering && hasPrevious) {
+                boolean order1 = ts1 >= previousTimestamp1;
+                boolean order2 = ts2 >= previousTimestamp2;
+                if (order1 != order2) {
+                    orderingMismatch(index, order1, order2);
+                }
+            }
+            if (checkTimestamp && Math.abs(ts1 - ts2) > plan.getTimestampToleranceMs()) {
+                timestampMismatch(index, ts1, ts2);
+            }
+            previousTimestamp1 = ts1;
+            previousTimestamp2 = ts2;
+        }
+        hasPrevious = true;
+        
+        if (checkFormat) {
+            String format1 = message1.getFormat();
+            String format2 = message2.getFormat();
+            if (!format1.equals(format2)) {
+                formatMismatch(index, format1, format2);
+            }
+        }
+        
+        if (checkProperties) {
+            compareProperties(index, message1.getProperties(), message2.getProperties());
+        }
+        
+        if (checkPayloadLength) {
+            int len1 = payload1.length;
+            int len2 = payload2.length;
+            if (len1 != len2) {
+                payloadLengthMismatch(index, len1, len2);
+            }
+        }
+        
+        if (checkPayloadStructure) {
+            int lead1 = leadingChar(message1);
+            int lead2 = leadingChar(message2);
+            boolean isJson1 = lead1 == '{' || lead1 == '[';
+            boolean isJson2 = lead2 == '{' || lead2 == '[';
+            boolean isXml1 = lead1 == '<';
+            boolean isXml2 = lead2 == '<';
+            if (isJson1 != isJson2 || isXml1 != isXml2) {
+                fail(ComparisonCheck.PAYLOAD_STRUCTURE, "Payload structure type mismatch", new Difference(index,
+                    "payloadStructure", lead1, lead2, "Message %d - Different payload formats detected", index));
+            }
+        }
+        
+        if (checkPayloadChecksum && !checksumsMatch(message1, message2, sameEncoding)) {
+            fail(ComparisonCheck.PAYLOAD_CHECKSUM, "Checksum mismatch", new Difference(index, "payloadChecksum",
+                null, null, "Message %d - Checksums differ", index));
+        }
+    }
+    
+    // Mismatch reporters, shared with comparisons that evaluate checks column by column
+    
+    void payloadMismatch(int index, String payload1, String payload2) {
+        String text1 = truncate(payload1);
+        String text2 = truncate(payload2);
+        fail(ComparisonCheck.PAYLOAD, "Payload mismatch found", new Difference(index, "payload", text1, text2,
+            "Message %d - Queue1: %s, Queue2: %s", index, text1, text2));
+    }
+    
+    void messageIdMismatch(int index, String id1, String id2) {
+        fail(ComparisonCheck.MESSAGE_ID, "Message ID mismatch found", new Difference(index, "messageId", id1, id2,
+            "Message %d - Queue1 ID: %s, Queue2 ID: %s", index, id1, id2));
+    }
+    
+    void correlationIdMismatch(int index, String corr1, String corr2) {
+        fail(ComparisonCheck.CORRELATION_ID, "Correlation ID mismatch found", new Difference(index,
+            "correlationId", corr1, corr2, "Message %d - Queue1: %s, Queue2: %s", index, corr1, corr2));
+    }
+    
+    void priorityMismatch(int index, int priority1, int priority2) {
+        fail(ComparisonCheck.PRIORITY, "Priority mismatch found", new Difference(index, "priority",
+            priority1, priority2, "Message %d - Queue1: %d, Queue2: %d", index, priority1, priority2));
+    }
+    
+    void orderingMismatch(int index, boolean order1, boolean order2) {
+        fail(ComparisonCheck.ORDERING, "Message ordering differs", new Difference(index, "ordering",
+            order1, order2, "Ordering differs at position %d", index));
+    }
+    
+    void timestampMismatch(int index, long ts1, long ts2) {
+        fail(ComparisonCheck.TIMESTAMP, "Timestamp difference exceeds tolerance", new Difference(index,
+            "timestamp", ts1, ts2, "Message %d - Difference: %dms", index, Math.abs(ts1 - ts2)));
+    }
+    
+    void formatMismatch(int index, String format1, String format2) {
+        fail(ComparisonCheck.FORMAT, "Format mismatch found", new Difference(index, "format",
+            format1, format2, "Message %d - Queue1: %s, Queue2: %s", index, format1, format2));
+    }
+    
+    void payloadLengthMismatch(int index, int len1, int len2) {
+        fail(ComparisonCheck.PAYLOAD_LENGTH, "Payload length mismatch", new Difference(index, "payloadLength",
+            len1, len2, "Message %d - Queue1: %d bytes, Queue2: %d bytes", index, len1, len2));
+    }
+    
+    /**
+     * Results for every check in the plan, in declaration order of {@link ComparisonCheck}
+     */
+    public Map<ComparisonCheck, ComparisonResult> getResults() {
+        Map<ComparisonCheck, ComparisonResult> map = new EnumMap<>(ComparisonCheck.class);
+        for (ComparisonCheck check : CHECKS) {
+            if (results[check.ordinal()] != null) {
+                map.put(check, results[check.ordinal()]);
+            }
+        }
+        return map;
+    }
+    
+    /**
+     * Compare cached payload digests. Payloads in different CCSIDs are digested as UTF-8 text instead,
+     * matching how the payload check treats them.
+     */
+    private boolean checksumsMatch(MQMessage message1, MQMessage message2, boolean sameEncoding) {
+        ChecksumAlgorithm algorithm = plan.getChecksumAlgorithm();
+        if (sameEncoding) {
+            return Arrays.equals(algorithm.digestOf(message1), algorithm.digestOf(message2));
+        }
+        return Arrays.equals(algorithm.digest(message1.getPayload().getBytes(StandardCharsets.UTF_8)),
+            algorithm.digest(message2.getPayload().getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * First character after leading whitespace (as {@link String#trim()} defines it), or -1 for a blank
+     * payload. ASCII-compatible payloads are scanned as bytes without decoding.
+     */
+    private static int leadingChar(MQMessage message) {
+        if (CcsidCharsets.isAsciiCompatible(message.getCharacterSet())) {
+            byte[] bytes = message.getPayloadBytes();
+            for (byte b : bytes) {
+                if ((b & 0xFF) > ' ') {
+                    return b & 0xFF;
+                }
+            }
+            return -1;
+        }
+        String payload = message.getPayload();
+        for (int i = 0; i < payload.length(); i++) {
+            if (payload.charAt(i) > ' ') {
+                return payload.charAt(i);
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Sort-merge both property sets by name, skipping properties the plan's filter does not accept
+     */
+    private void compareProperties(int index, Map<String, Object> properties1, Map<String, Object> properties2) {
+        MessageProperties props1 = MessageProperties.of(properties1);
+        MessageProperties props2 = MessageProperties.of(properties2);
+        PropertyFilter filter = plan.getPropertyFilter();
+        int count1 = countAccepted(props1, filter);
+        int count2 = countAccepted(props2, filter);
+        if (count1 != count2) {
+            fail(ComparisonCheck.PROPERTIES, "Property count mismatch", new Difference(index, "propertyCount",
+                count1, count2, "Message %d - Queue1: %d properties, Queue2: %d properties", index, count1, count2));
+            return;
+        }
+        
+        int i = 0;
+        int j = 0;
+        while (i < props1.size() || j < props2.size()) {
+            int order = i == props1.size() ? 1 : j == props2.size() ? -1 : props1.name(i).compareTo(props2.name(j));
+            if (order < 0) {
+                String key = props1.name(i);
+                if (filter.accepts(key)) {
+                    fail(ComparisonCheck.PROPERTIES, "Property key mismatch", new Difference(index, "property." + key,
+                        props1.value(i), null, "Message %d - Property '%s' missing in Queue2", index, key));
+                }
+                i++;
+            } else if (order > 0) {
+                String key = props2.name(j);
+                if (filter.accepts(key)) {
+                    fail(ComparisonCheck.PROPERTIES, "Property key mismatch", new Difference(index, "property." + key,
+                        null, props2.value(j), "Message %d - Property '%s' missing in Queue1", index, key));
+                }
+                j++;
+            } else {
+                String key = props1.name(i);
+                Object value1 = props1.value(i);
+                Object value2 = props2.value(j);
+                if (filter.accepts(key) && !Objects.deepEquals(value1, value2)) {
+                    fail(ComparisonCheck.PROPERTIES, "Property value mismatch", new Difference(index, "property." + key,
+                        value1, value2, "Message %d - Property '%s': Queue1=%s, Queue2=%s", index, key, value1, value2));
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+    
+    private static int countAccepted(MessageProperties properties, PropertyFilter filter) {
+        if (filter.isAll()) {
+            return properties.size();
+        }
+        int count = 0;
+        for (int i = 0; i < properties.size(); i++) {
+            if (filter.accepts(properties.name(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private void fail(ComparisonCheck check, String message, Difference difference) {
+        ComparisonResult result = results[check.ordinal()];
+        result.markFailed(message);
+        result.addDifference(difference);
+    }
+    
+    private String initialMessage(ComparisonCheck check) {
+        if (check == ComparisonCheck.TIMESTAMP) {
+            return String.format("Timestamp comparison (tolerance: %dms)", plan.getTimestampToleranceMs());
+        }
+        if (check == ComparisonCheck.PAYLOAD_CHECKSUM) {
+            return String.format("Payload checksum comparison (%s)", plan.getChecksumAlgorithm().getDisplayName());
+        }
+        if (check == ComparisonCheck.PROPERTIES && !plan.getPropertyFilter().isAll()) {
+            return String.format("Message properties comparison (%s)", plan.getPropertyFilter());
+        }
+        return check.getDescription();
+    }
+    
+    static String truncate(String str) {
+        return str.length() > 50 ? str.substring(0, 50) + "..." : str;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Set of checks to evaluate together in a single pass over two queue snapshots
+ */
+public class ComparisonPlan {
+    private final Set<ComparisonCheck> checks;
+    private final long timestampToleranceMs;
+    private final ChecksumAlgorithm checksumAlgorithm;
+    private final int maxDifferences;
+    private final PropertyFilter propertyFilter;
+    
+    public ComparisonPlan(Set<ComparisonCheck> checks, long timestampToleranceMs) {
+        this(checks, timestampToleranceMs, ChecksumAlgorithm.XXHASH64, ComparisonResult.DEFAULT_MAX_DIFFERENCES);
+    }
+    
+    public ComparisonPlan(Set<ComparisonCheck> checks, long timestampToleranceMs, ChecksumAlgorithm checksumAlgorithm,
+                          int maxDifferences) {
+        this(checks, timestampToleranceMs, checksumAlgorithm, maxDifferences, PropertyFilter.ALL);
+    }
+    
+    public ComparisonPlan(Set<ComparisonCheck> checks, long timestampToleranceMs, ChecksumAlgorithm checksumAlgorithm,
+                          int maxDifferences, PropertyFilter propertyFilter) {
+        this.checks = checks.isEmpty() ? EnumSet.noneOf(ComparisonCheck.class) : EnumSet.copyOf(checks);
+        this.timestampToleranceMs = timestampToleranceMs;
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.maxDifferences = maxDifferences;
+        this.propertyFilter = propertyFilter;
+    }
+    
+    /**
+     * Plan containing only the given checks
+     */
+    public static ComparisonPlan of(long timestampToleranceMs, ComparisonCheck... checks) {
+        EnumSet<ComparisonCheck> set = EnumSet.noneOf(ComparisonCheck.class);
+        Collections.addAll(set, checks);
+        return new ComparisonPlan(set, timestampToleranceMs);
+    }
+    
+    /**
+     * Plan containing every pairwise check
+     */
+    public static ComparisonPlan all(long timestampToleranceMs) {
+        return new ComparisonPlan(EnumSet.allOf(ComparisonCheck.class), timestampToleranceMs);
+    }
+    
+    /**
+     * Same checks, using the given digest for {@link ComparisonCheck#PAYLOAD_CHECKSUM}
+     */
+    public ComparisonPlan withChecksum(ChecksumAlgorithm algorithm) {
+        return new ComparisonPlan(checks, timestampToleranceMs, algorithm, maxDifferences, propertyFilter);
+    }
+    
+    /**
+     * Same checks, recording at most {@code maxDifferences} differences per check
+     */
+    public ComparisonPlan withMaxDifferences(int maxDifferences) {
+        return new ComparisonPlan(checks, timestampToleranceMs, checksumAlgorithm, maxDifferences, propertyFilter);
+    }
+    
+    /**
+     * Same checks, comparing only the message properties the filter accepts
+     */
+    public ComparisonPlan withPropertyFilter(PropertyFilter filter) {
+        return new ComparisonPlan(checks, timestampToleranceMs, checksumAlgorithm, maxDifferences, filter);
+    }
+    
+    public boolean includes(ComparisonCheck check) {
+        return checks.contains(check);
+    }
+    
+    public Set<ComparisonCheck> getChecks() {
+        return Collections.unmodifiableSet(checks);
+    }
+    
+    public long getTimestampToleranceMs() {
+        return timestampToleranceMs;
+    }
+    
+    public ChecksumAlgorithm getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+    
+    public int getMaxDifferences() {
+        return maxDifferences;
+    }
+    
+    public PropertyFilter getPropertyFilter() {
+        return propertyFilter;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQId;
+import com.mq.test.model.MQMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linear-time duplicate detection. Messages are bucketed by a 64-bit digest of the key field and
+ * digest collisions are confirmed with an exact equality check before positions are grouped.
+ */
+public class DuplicateDetector {
+    
+    /**
+     * Find every group of two or more messages sharing the same key, ordered by first position
+     *
+     * @return one array of ascending queue positions per duplicate group
+     */
+    public static List<int[]> findDuplicateGroups(List<MQMessage> messages, DuplicateKey key) {
+        Map<Long, Group> buckets = new HashMap<>(Math.max(16, messages.size() * 4 / 3 + 1));
+        List<Group> duplicates = new ArrayList<>();
+        
+        for (int i = 0; i < messages.size(); i++) {
+            Object value = keyOf(messages.get(i), key);
+            if (value == null) {
+                continue;
+            }
+            long digest = value instanceof MQId ? ((MQId) value).hash64()
+                : value instanceof byte[] ? digest((byte[]) value) : digest((String) value);
+            Group head = buckets.get(digest);
+            Group group = head;
+            while (group != null && !sameValue(group.value, value)) {
+                group = group.next;
+            }
+            if (group == null) {
+                Group created = new Group(value, i);
+                created.next = head;
+                buckets.put(digest, created);
+            } else {
+                if (group.size == 1) {
+                    duplicates.add(group);
+                }
+                group.add(i);
+            }
+        }
+        
+        duplicates.sort(Comparator.comparingInt(group -> group.first));
+        List<int[]> groups = new ArrayList<>(duplicates.size());
+        for (Group group : duplicates) {
+            groups.add(Arrays.copyOf(group.positions, group.size));
+        }
+        return groups;
+    }
+    
+    /**
+     * Report every duplicate group in a queue as a comparison result
+     */
+    public static ComparisonResult findDuplicates(List<MQMessage> messages, String queueName, DuplicateKey key) {
+        return findDuplicates(messages, queueName, key, ComparisonResult.DEFAULT_MAX_DIFFERENCES);
+    }
+    
+    /**
+     * Report every duplicate group, recording at most {@code maxDifferences} of them in full
+     */
+    public static ComparisonResult findDuplicates(List<MQMessage> messages, String queueName, DuplicateKey key,
+                                                  int maxDifferences) {
+        List<int[]> groups = findDuplicateGroups(messages, key);
+        if (groups.isEmpty()) {
+            return new ComparisonResult(true, String.format("Duplicate message check for %s", queueName), maxDifferences);
+        }
+        ComparisonResult result = new ComparisonResult(false, "Duplicate messages found", maxDifferences);
+        for (int[] positions : groups) {
+            result.addDifference(describe(positions));
+        }
+        return result;
+    }
+    
+    private static String describe(int[] positions) {
+        if (positions.length == 2) {
+            return String.format("Messages at positions %d and %d are duplicates", positions[0], positions[1]);
+        }
+        StringBuilder sb = new StringBuilder("Messages at positions ");
+        for (int i = 0; i < positions.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(positions[i]);
+        }
+        return sb.append(" are duplicates").toString();
+    }
+    
+    /**
+     * Payload keys are the raw message bodies and ID keys the raw IDs, so nothing is rendered as text.
+     * IDs that are not 48 hex digits are keyed on their text.
+     */
+    private static Object keyOf(MQMessage message, DuplicateKey key) {
+        switch (key) {
+            case MESSAGE_ID:
+                return message.getMessageIdValue() != null ? message.getMessageIdValue() : message.getMessageId();
+            case CORRELATION_ID:
+                return message.getCorrelationIdValue() != null ? message.getCorrelationIdValue()
+                    : message.getCorrelationId();
+            default: return message.getPayloadBytes();
+        }
+    }
+    
+    private static boolean sameValue(Object a, Object b) {
+        if (a instanceof byte[] && b instanceof byte[]) {
+            return Arrays.equals((byte[]) a, (byte[]) b);
+        }
+        return a.equals(b);
+    }
+    
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of the key
+     */
+    static long digest(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * 64-bit FNV-1a over raw bytes
+     */
+    static long digest(byte[] value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * Distinct key value; the positions array is only allocated once a duplicate is seen
+     */
+    private static final class Group {
+        private final Object value;
+        private final int first;
+        private int[] positions;
+        private int size;
+        private Group next;
+        
+        private Group(Object value, int first) {
+            this.value = value;
+            this.first = first;
+            this.size = 1;
+        }
+        
+        private void add(int position) {
+            if (positions == null) {
+                positions = new int[4];
+                positions[0] = first;
+            } else if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+    }
+}
\ No newline at end of file
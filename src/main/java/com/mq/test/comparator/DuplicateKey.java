@@ -0,0 +1,10 @@
+package com.mq.test.comparator;
+
+/**
+ * Message field used to decide whether two messages in the same queue are duplicates
+ */
+public enum DuplicateKey {
+    PAYLOAD,
+    MESSAGE_ID,
+    CORRELATION_ID
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.mq.test.comparator;
+
+/**
+ * Lightweight scanner that extracts a scalar JSON field value without parsing the whole document.
+ * Returns the first occurrence of {@code "field": value}; object and array values are not supported.
+ */
+final class JsonFieldScanner {
+    
+    private JsonFieldScanner() {}
+    
+    static String find(String json, String field) {
+        if (json == null) {
+            return null;
+        }
+        String token = "\"" + field + "\"";
+        int from = 0;
+        while (true) {
+            int at = json.indexOf(token, from);
+            if (at < 0) {
+                return null;
+            }
+            int pos = skipWhitespace(json, at + token.length());
+            if (pos < json.length() && json.charAt(pos) == ':') {
+                return readValue(json, skipWhitespace(json, pos + 1));
+            }
+            from = at + 1;
+        }
+    }
+    
+    private static String readValue(String json, int pos) {
+        if (pos >= json.length()) {
+            return null;
+        }
+        char first = json.charAt(pos);
+        if (first == '"') {
+            return readString(json, pos + 1);
+        }
+        if (first == '{' || first == '[') {
+            return null;
+        }
+        int end = pos;
+        while (end < json.length()) {
+            char c = json.charAt(end);
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            end++;
+        }
+        return end > pos ? json.substring(pos, end) : null;
+    }
+    
+    private static String readString(String json, int pos) {
+        StringBuilder sb = null;
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == '"') {
+                return sb == null ? json.substring(start, pos) : sb.toString();
+            }
+            if (c == '\\' && pos + 1 < json.length()) {
+                if (sb == null) {
+                    sb = new StringBuilder(json.substring(start, pos));
+                }
+                char escaped = json.charAt(++pos);
+                switch (escaped) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        try {
+                            sb.append((char) Integer.parseInt(json.substring(pos + 1, pos + 5), 16));
+                            pos += 4;
+                        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                            sb.append(escaped);
+                        }
+                        break;
+                    default: sb.append(escaped);
+                }
+            } else if (sb != null) {
+                sb.append(c);
+            }
+            pos++;
+        }
+        return null;
+    }
+    
+    private static int skipWhitespace(String json, int pos) {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.MQMessage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Joins two queue snapshots on a message key instead of queue position, so a missing or
+ * reordered message only affects itself rather than every later position.
+ */
+public class MessageAligner {
+    
+    /**
+     * Align two snapshots on the given key. When a key repeats, the n-th occurrence in Queue1 is
+     * paired with the n-th occurrence in Queue2. Messages without a key are reported as unmatched.
+     */
+    public static AlignmentResult alignByKey(List<MQMessage> queue1, List<MQMessage> queue2,
+                                             MessageKeyExtractor extractor) {
+        Map<Object, Positions> index = new HashMap<>(Math.max(16, queue2.size() * 4 / 3 + 1));
+        boolean[] matched2 = new boolean[queue2.size()];
+        for (int j = 0; j < queue2.size(); j++) {
+            Object key = extractor.keyOf(queue2.get(j));
+            if (key != null) {
+                Positions positions = index.get(key);
+                if (positions == null) {
+                    index.put(key, new Positions(j));
+                } else {
+                    positions.add(j);
+                }
+            }
+        }
+        
+        int capacity = Math.min(queue1.size(), queue2.size());
+        int[] left = new int[capacity];
+        int[] right = new int[capacity];
+        int[] only1 = new int[queue1.size()];
+        int matched = 0;
+        int only1Count = 0;
+        
+        for (int i = 0; i < queue1.size(); i++) {
+            Object key = extractor.keyOf(queue1.get(i));
+            Positions positions = key == null ? null : index.get(key);
+            int j = positions == null ? -1 : positions.poll();
+            if (j < 0) {
+                only1[only1Count++] = i;
+            } else {
+                left[matched] = i;
+                right[matched] = j;
+                matched2[j] = true;
+                matched++;
+            }
+        }
+        
+        int[] only2 = new int[queue2.size() - matched];
+        int only2Count = 0;
+        for (int j = 0; j < matched2.length; j++) {
+            if (!matched2[j]) {
+                only2[only2Count++] = j;
+            }
+        }
+        
+        return new AlignmentResult(left, right, matched, Arrays.copyOf(only1, only1Count), only2);
+    }
+    
+    /**
+     * FIFO of Queue2 positions sharing one key; the array is only allocated for repeated keys
+     */
+    private static final class Positions {
+        private final int first;
+        private int[] more;
+        private int size;
+        private int next;
+        
+        private Positions(int first) {
+            this.first = first;
+            this.size = 1;
+        }
+        
+        private void add(int position) {
+            if (more == null) {
+                more = new int[4];
+            } else if (size - 1 == more.length) {
+                more = Arrays.copyOf(more, more.length * 2);
+            }
+            more[size - 1] = position;
+            size++;
+        }
+        
+        private int poll() {
+            if (next >= size) {
+                return -1;
+            }
+            int position = next == 0 ? first : more[next - 1];
+            next++;
+            return position;
+        }
+    }
+}
\ No newline at end of file
@@ -1,9 +1,17 @@
 package com.mq.test.comparator;
 
 import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.Difference;
 import com.mq.test.model.MQMessage;
+import com.mq.test.util.MessageColumns;
+import com.mq.test.util.SnapshotReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Comparator class containing all message comparison methods
@@ -21,207 +29,243 @@ public class MessageComparator {
     }
     
     public static ComparisonResult comparePayloads(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Payload comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            String payload1 = queue1.get(i).getPayload();
-            String payload2 = queue2.get(i).getPayload();
-            if (!payload1.equals(payload2)) {
-                result = new ComparisonResult(false, "Payload mismatch found");
-                result.addDifference(String.format("Message %d - Queue1: %s, Queue2: %s", i, truncate(payload1), truncate(payload2)));
-            }
-        }
-        return result;
+        return single(ComparisonCheck.PAYLOAD, 0L, queue1, queue2);
     }
     
     public static ComparisonResult compareMessageIds(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Message ID comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            String id1 = queue1.get(i).getMessageId();
-            String id2 = queue2.get(i).getMessageId();
-            if (!id1.equals(id2)) {
-                result = new ComparisonResult(false, "Message ID mismatch found");
-                result.addDifference(String.format("Message %d - Queue1 ID: %s, Queue2 ID: %s", i, id1, id2));
-            }
-        }
-        return result;
+        return single(ComparisonCheck.MESSAGE_ID, 0L, queue1, queue2);
     }
     
     public static ComparisonResult compareCorrelationIds(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Correlation ID comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            String corr1 = queue1.get(i).getCorrelationId();
-            String corr2 = queue2.get(i).getCorrelationId();
-            if (!corr1.equals(corr2)) {
-                result = new ComparisonResult(false, "Correlation ID mismatch found");
-                result.addDifference(String.format("Message %d - Queue1: %s, Queue2: %s", i, corr1, corr2));
-            }
-        }
-        return result;
+        return single(ComparisonCheck.CORRELATION_ID, 0L, queue1, queue2);
     }
     
     public static ComparisonResult comparePriorities(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Priority comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            int priority1 = queue1.get(i).getPriority();
-            int priority2 = queue2.get(i).getPriority();
-            if (priority1 != priority2) {
-                result = new ComparisonResult(false, "Priority mismatch found");
-                result.addDifference(String.format("Message %d - Queue1: %d, Queue2: %d", i, priority1, priority2));
-            }
-        }
-        return result;
+        return single(ComparisonCheck.PRIORITY, 0L, queue1, queue2);
     }
     
     public static ComparisonResult compareOrdering(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Message ordering comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            long ts1 = queue1.get(i).getTimestamp();
-            long ts2 = queue2.get(i).getTimestamp();
-            if (i > 0) {
-                long prevTs1 = queue1.get(i-1).getTimestamp();
-                long prevTs2 = queue2.get(i-1).getTimestamp();
-                boolean order1 = ts1 >= prevTs1;
-                boolean order2 = ts2 >= prevTs2;
-                if (order1 != order2) {
-                    result = new ComparisonResult(false, "Message ordering differs");
-                    result.addDifference(String.format("Ordering differs at position %d", i));
-                }
-            }
-        }
-        return result;
+        return single(ComparisonCheck.ORDERING, 0L, queue1, queue2);
     }
     
     public static ComparisonResult compareFormats(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Message format comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            String format1 = queue1.get(i).getFormat();
-            String format2 = queue2.get(i).getFormat();
-            if (!format1.equals(format2)) {
-                result = new ComparisonResult(false, "Format mismatch found");
-                result.addDifference(String.format("Message %d - Queue1: %s, Queue2: %s", i, format1, format2));
-            }
-        }
-        return result;
+        return single(ComparisonCheck.FORMAT, 0L, queue1, queue2);
     }
     
     public static ComparisonResult compareTimestamps(List<MQMessage> queue1, List<MQMessage> queue2, long toleranceMs) {
-        ComparisonResult result = new ComparisonResult(true, String.format("Timestamp comparison (tolerance: %dms)", toleranceMs));
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            long ts1 = queue1.get(i).getTimestamp();
-            long ts2 = queue2.get(i).getTimestamp();
-            long diff = Math.abs(ts1 - ts2);
-            if (diff > toleranceMs) {
-                result = new ComparisonResult(false, "Timestamp difference exceeds tolerance");
-                result.addDifference(String.format("Message %d - Difference: %dms", i, diff));
-            }
-        }
-        return result;
+        return single(ComparisonCheck.TIMESTAMP, toleranceMs, queue1, queue2);
     }
     
     public static ComparisonResult compareMessageProperties(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Message properties comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            Map<String, Object> props1 = queue1.get(i).getProperties();
-            Map<String, Object> props2 = queue2.get(i).getProperties();
-            if (props1.size() != props2.size()) {
-                result = new ComparisonResult(false, "Property count mismatch");
-                result.addDifference(String.format("Message %d - Queue1: %d properties, Queue2: %d properties", i, props1.size(), props2.size()));
-                continue;
-            }
-            for (String key : props1.keySet()) {
-                if (!props2.containsKey(key)) {
-                    result = new ComparisonResult(false, "Property key mismatch");
-                    result.addDifference(String.format("Message %d - Property '%s' missing in Queue2", i, key));
-                } else if (!props1.get(key).equals(props2.get(key))) {
-                    result = new ComparisonResult(false, "Property value mismatch");
-                    result.addDifference(String.format("Message %d - Property '%s': Queue1=%s, Queue2=%s", i, key, props1.get(key), props2.get(key)));
-                }
-            }
-        }
-        return result;
+        return single(ComparisonCheck.PROPERTIES, 0L, queue1, queue2);
     }
     
     public static ComparisonResult comparePayloadLength(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Payload length comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            int len1 = queue1.get(i).getPayload().length();
-            int len2 = queue2.get(i).getPayload().length();
-            if (len1 != len2) {
-                result = new ComparisonResult(false, "Payload length mismatch");
-                result.addDifference(String.format("Message %d - Queue1: %d bytes, Queue2: %d bytes", i, len1, len2));
-            }
-        }
-        return result;
+        return single(ComparisonCheck.PAYLOAD_LENGTH, 0L, queue1, queue2);
     }
     
     public static ComparisonResult comparePayloadStructure(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Payload structure comparison (JSON/XML)");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            String payload1 = queue1.get(i).getPayload().trim();
-            String payload2 = queue2.get(i).getPayload().trim();
-            boolean isJson1 = payload1.startsWith("{") || payload1.startsWith("[");
-            boolean isJson2 = payload2.startsWith("{") || payload2.startsWith("[");
-            boolean isXml1 = payload1.startsWith("<");
-            boolean isXml2 = payload2.startsWith("<");
-            if (isJson1 != isJson2 || isXml1 != isXml2) {
-                result = new ComparisonResult(false, "Payload structure type mismatch");
-                result.addDifference(String.format("Message %d - Different payload formats detected", i));
-            }
-        }
-        return result;
+        return single(ComparisonCheck.PAYLOAD_STRUCTURE, 0L, queue1, queue2);
     }
     
     public static ComparisonResult findDuplicateMessages(List<MQMessage> messages, String queueName) {
-        ComparisonResult result = new ComparisonResult(true, String.format("Duplicate message check for %s", queueName));
-        for (int i = 0; i < messages.size(); i++) {
-            for (int j = i + 1; j < messages.size(); j++) {
-                if (messages.get(i).getPayload().equals(messages.get(j).getPayload())) {
-                    result = new ComparisonResult(false, "Duplicate messages found");
-                    result.addDifference(String.format("Messages at positions %d and %d are duplicates", i, j));
-                }
-            }
-        }
-        return result;
+        return findDuplicateMessages(messages, queueName, DuplicateKey.PAYLOAD);
+    }
+    
+    /**
+     * Report every group of messages sharing the same payload, message ID or correlation ID
+     */
+    public static ComparisonResult findDuplicateMessages(List<MQMessage> messages, String queueName, DuplicateKey key) {
+        return DuplicateDetector.findDuplicates(messages, queueName, key);
+    }
+    
+    /**
+     * Duplicate check recording at most {@code maxDifferences} groups in full, e.g. {@code comparison.max.differences}
+     */
+    public static ComparisonResult findDuplicateMessages(List<MQMessage> messages, String queueName, DuplicateKey key,
+                                                         int maxDifferences) {
+        return DuplicateDetector.findDuplicates(messages, queueName, key, maxDifferences);
     }
     
     public static ComparisonResult checkMessageSequence(List<MQMessage> messages, String queueName) {
-        ComparisonResult result = new ComparisonResult(true, String.format("Message sequence check for %s", queueName));
+        return checkMessageSequence(messages, queueName, ComparisonResult.DEFAULT_MAX_DIFFERENCES);
+    }
+    
+    /**
+     * Sequence check recording at most {@code maxDifferences} violations in full
+     */
+    public static ComparisonResult checkMessageSequence(List<MQMessage> messages, String queueName, int maxDifferences) {
+        ComparisonResult result = new ComparisonResult(true, String.format("Message sequence check for %s", queueName),
+            maxDifferences);
         for (int i = 1; i < messages.size(); i++) {
             long prevTs = messages.get(i-1).getTimestamp();
             long currTs = messages.get(i).getTimestamp();
             if (currTs < prevTs) {
-                result = new ComparisonResult(false, "Message sequence violation");
-                result.addDifference(String.format("Message at position %d is out of sequence", i));
+                result.markFailed("Message sequence violation");
+                result.addDifference(new Difference(i, "sequence", prevTs, currTs,
+                    "Message at position %d is out of sequence", i));
             }
         }
         return result;
     }
     
     public static ComparisonResult comparePayloadChecksum(List<MQMessage> queue1, List<MQMessage> queue2) {
-        ComparisonResult result = new ComparisonResult(true, "Payload checksum comparison");
-        int minSize = Math.min(queue1.size(), queue2.size());
-        for (int i = 0; i < minSize; i++) {
-            int checksum1 = queue1.get(i).getPayload().hashCode();
-            int checksum2 = queue2.get(i).getPayload().hashCode();
-            if (checksum1 != checksum2) {
-                result = new ComparisonResult(false, "Checksum mismatch");
-                result.addDifference(String.format("Message %d - Checksums differ", i));
-            }
+        return single(ComparisonCheck.PAYLOAD_CHECKSUM, 0L, queue1, queue2);
+    }
+    
+    /**
+     * Evaluate every check in the plan in a single pass over both queues
+     */
+    public static Map<ComparisonCheck, ComparisonResult> compare(ComparisonPlan plan,
+                                                                 List<MQMessage> queue1, List<MQMessage> queue2) {
+        return ComparisonEngine.run(plan, queue1, queue2);
+    }
+    
+    /**
+     * Evaluate every check in the plan, splitting the queues into chunks compared on the given executor
+     */
+    public static Map<ComparisonCheck, ComparisonResult> compareParallel(ComparisonPlan plan,
+                                                                         List<MQMessage> queue1, List<MQMessage> queue2,
+                                                                         ExecutorService executor, int chunkSize) {
+        return ComparisonEngine.runParallel(plan, queue1, queue2, null, executor, chunkSize);
+    }
+    
+    /**
+     * Compare two message streams in lockstep without materialising either queue
+     */
+    public static StreamComparison compareStreams(ComparisonPlan plan, Iterator<MQMessage> queue1,
+                                                  Iterator<MQMessage> queue2) {
+        return StreamComparison.run(plan, queue1, queue2);
+    }
+    
+    /**
+     * Compare two message streams in lockstep, checkpointing progress so an interrupted run can resume
+     */
+    public static StreamComparison compareStreams(ComparisonPlan plan, Iterator<MQMessage> queue1,
+                                                  Iterator<MQMessage> queue2, CheckpointStore checkpoints,
+                                                  ComparisonCheckpoint resumeFrom) {
+        return StreamComparison.run(plan, queue1, queue2, checkpoints, resumeFrom);
+    }
+    
+    /**
+     * Evaluate every check in the plan over two snapshot files. Records are compared in the mapped files;
+     * only mismatching pairs are decoded into messages for the report.
+     */
+    public static Map<ComparisonCheck, ComparisonResult> compareSnapshots(ComparisonPlan plan, Path snapshot1,
+                                                                          Path snapshot2) throws IOException {
+        try (SnapshotReader reader1 = SnapshotReader.open(snapshot1);
+             SnapshotReader reader2 = SnapshotReader.open(snapshot2)) {
+            return SnapshotComparison.run(plan, reader1, reader2).getResults();
+        }
+    }
+    
+    /**
+     * Evaluate every check in the plan over two columnar stores; header and payload checks run as
+     * primitive loops over the columns
+     */
+    public static Map<ComparisonCheck, ComparisonResult> compare(ComparisonPlan plan, MessageColumns queue1,
+                                                                 MessageColumns queue2) {
+        return ColumnComparison.run(plan, queue1, queue2);
+    }
+    
+    public static ComparisonResult comparePriorities(MessageColumns queue1, MessageColumns queue2) {
+        return ColumnComparison.run(ComparisonPlan.of(0L, ComparisonCheck.PRIORITY), queue1, queue2)
+            .get(ComparisonCheck.PRIORITY);
+    }
+    
+    public static ComparisonResult compareTimestamps(MessageColumns queue1, MessageColumns queue2, long toleranceMs) {
+        return ColumnComparison.run(ComparisonPlan.of(toleranceMs, ComparisonCheck.TIMESTAMP), queue1, queue2)
+            .get(ComparisonCheck.TIMESTAMP);
+    }
+    
+    public static ComparisonResult compareFormats(MessageColumns queue1, MessageColumns queue2) {
+        return ColumnComparison.run(ComparisonPlan.of(0L, ComparisonCheck.FORMAT), queue1, queue2)
+            .get(ComparisonCheck.FORMAT);
+    }
+    
+    /**
+     * Pair messages of both queues on a key (correlation ID, message ID, global ID, JSON field...)
+     */
+    public static AlignmentResult alignByKey(List<MQMessage> queue1, List<MQMessage> queue2,
+                                             MessageKeyExtractor extractor) {
+        return MessageAligner.alignByKey(queue1, queue2, extractor);
+    }
+    
+    /**
+     * Align two ordered snapshots with a minimal edit script over payload digests, so inserted and
+     * deleted messages are isolated while the surrounding order is preserved
+     */
+    public static AlignmentResult alignBySequenceDiff(List<MQMessage> queue1, List<MQMessage> queue2, int maxEdits) {
+        return SequenceDiff.diff(queue1, queue2, maxEdits);
+    }
+    
+    /**
+     * Evaluate every check in the plan over the matched pairs of an alignment only
+     */
+    public static Map<ComparisonCheck, ComparisonResult> compareAligned(ComparisonPlan plan,
+                                                                        List<MQMessage> queue1, List<MQMessage> queue2,
+                                                                        AlignmentResult alignment) {
+        return ComparisonEngine.run(plan, queue1, queue2, alignment);
+    }
+    
+    /**
+     * Parallel variant of {@link #compareAligned}
+     */
+    public static Map<ComparisonCheck, ComparisonResult> compareAlignedParallel(ComparisonPlan plan,
+                                                                                List<MQMessage> queue1, List<MQMessage> queue2,
+                                                                                AlignmentResult alignment,
+                                                                                ExecutorService executor, int chunkSize) {
+        return ComparisonEngine.runParallel(plan, queue1, queue2, alignment, executor, chunkSize);
+    }
+    
+    /**
+     * Report messages present in only one of the two aligned queues
+     */
+    public static ComparisonResult compareAlignment(AlignmentResult alignment) {
+        if (alignment.getMode() == AlignmentResult.Mode.SEQUENCE) {
+            return compareSequenceDiff(alignment);
+        }
+        String msg = String.format("Key alignment: %d matched, %d only in Queue1, %d only in Queue2",
+            alignment.getMatchedCount(), alignment.getQueue1Only().length, alignment.getQueue2Only().length);
+        ComparisonResult result = new ComparisonResult(alignment.isFullyMatched(), msg);
+        for (int position : alignment.getQueue1Only()) {
+            result.addDifference(new Difference(position, "queue1Only", null, null, "Message %d - Only in Queue1", position));
+        }
+        for (int position : alignment.getQueue2Only()) {
+            result.addDifference(new Difference(position, "queue2Only", null, null, "Message %d - Only in Queue2", position));
         }
         return result;
     }
     
-    private static String truncate(String str) {
-        return str.length() > 50 ? str.substring(0, 50) + "..." : str;
+    private static ComparisonResult compareSequenceDiff(AlignmentResult alignment) {
+        String msg = String.format("Sequence diff: %d matched, %d deleted from Queue1, %d inserted in Queue2",
+            alignment.getMatchedCount(), alignment.getQueue1Only().length, alignment.getQueue2Only().length);
+        ComparisonResult result = new ComparisonResult(alignment.isFullyMatched(), msg);
+        addRuns(result, alignment.getQueue1Only(), "deleted", "deleted from Queue1");
+        addRuns(result, alignment.getQueue2Only(), "inserted", "inserted in Queue2");
+        return result;
+    }
+    
+    /**
+     * Collapse consecutive positions into one difference per run
+     */
+    private static void addRuns(ComparisonResult result, int[] positions, String field, String action) {
+        int i = 0;
+        while (i < positions.length) {
+            int start = positions[i];
+            int end = start;
+            while (i + 1 < positions.length && positions[i + 1] == end + 1) {
+                end = positions[++i];
+            }
+            i++;
+            result.addDifference(start == end
+                ? new Difference(start, field, start, end, "Message %d %s", start, action)
+                : new Difference(start, field, start, end, "Messages %d-%d %s", start, end, action));
+        }
+    }
+    
+    private static ComparisonResult single(ComparisonCheck check, long toleranceMs,
+                                           List<MQMessage> queue1, List<MQMessage> queue2) {
+        return ComparisonEngine.run(ComparisonPlan.of(toleranceMs, check), queue1, queue2).get(check);
     }
 }
\ No newline at end of file
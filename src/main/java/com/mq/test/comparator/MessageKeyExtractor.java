@@ -0,0 +1,93 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.MQMessage;
+
+/**
+ * Extracts the join key used to align messages between two queues.
+ * Keys must implement {@code equals}/{@code hashCode}; a {@code null} key leaves the message unmatched.
+ */
+@FunctionalInterface
+public interface MessageKeyExtractor {
+    
+    /** Length of the legacy global identifier header: PROGRAM(7) + MMDDYYYY(8) + HHMMSS(6) + MSGNUM(3) */
+    int GLOBAL_ID_LENGTH = 24;
+    
+    Object keyOf(MQMessage message);
+    
+    /**
+     * Raw correlation ID; IDs that are not 48 hex digits are keyed on their text
+     */
+    static MessageKeyExtractor correlationId() {
+        return message -> message.getCorrelationIdValue() != null ? message.getCorrelationIdValue()
+            : message.getCorrelationId();
+    }
+    
+    /**
+     * Raw message ID; IDs that are not 48 hex digits are keyed on their text
+     */
+    static MessageKeyExtractor messageId() {
+        return message -> message.getMessageIdValue() != null ? message.getMessageIdValue() : message.getMessageId();
+    }
+    
+    /**
+     * First {@code length} characters of the payload; payloads shorter than that have no key
+     */
+    static MessageKeyExtractor payloadPrefix(int length) {
+        return message -> {
+            String payload = message.getPayload();
+            return payload != null && payload.length() >= length ? payload.substring(0, length) : null;
+        };
+    }
+    
+    /**
+     * 24-character global identifier at the start of the payload
+     */
+    static MessageKeyExtractor globalId() {
+        return payloadPrefix(GLOBAL_ID_LENGTH);
+    }
+    
+    /**
+     * Value of the first occurrence of a JSON field in the payload
+     */
+    static MessageKeyExtractor jsonField(String field) {
+        return message -> JsonFieldScanner.find(message.getPayload(), field);
+    }
+    
+    /**
+     * Parse a key specification: POSITION, CORRELATION_ID, MESSAGE_ID, GLOBAL_ID, PREFIX:&lt;n&gt; or JSON:&lt;field&gt;
+     *
+     * @return the extractor, or {@code null} for positional comparison
+     */
+    static MessageKeyExtractor fromSpec(String spec) {
+        String value = spec == null ? "" : spec.trim();
+        int colon = value.indexOf(':');
+        String kind = (colon < 0 ? value : value.substring(0, colon)).toUpperCase();
+        String argument = colon < 0 ? null : value.substring(colon + 1).trim();
+        
+        switch (kind) {
+            case "":
+            case "POSITION":
+                return null;
+            case "CORRELATION_ID":
+                return correlationId();
+            case "MESSAGE_ID":
+                return messageId();
+            case "GLOBAL_ID":
+                return globalId();
+            case "PREFIX":
+                if (argument == null || argument.isEmpty()) {
+                    throw new IllegalArgumentException("PREFIX alignment key requires a length, e.g. PREFIX:24");
+                }
+                return payloadPrefix(Integer.parseInt(argument));
+            case "JSON":
+                if (argument == null || argument.isEmpty()) {
+                    throw new IllegalArgumentException("JSON alignment key requires a field name, e.g. JSON:orderId");
+                }
+                return jsonField(argument);
+            default:
+                throw new IllegalArgumentException(String.format(
+                    "Unknown alignment key '%s'. Supported: POSITION, CORRELATION_ID, MESSAGE_ID, GLOBAL_ID, PREFIX:<n>, JSON:<field>",
+                    spec));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.mq.test.comparator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Include and ignore rules for the message properties check. A rule is an exact property name or a prefix
+ * ending in {@code *} (e.g. {@code JMS*}). A property is compared if it matches an include rule, or no
+ * include rules are given, and matches no ignore rule. Decisions are cached per name, since a queue
+ * usually repeats a handful of property names.
+ */
+public final class PropertyFilter {
+    
+    /** Compares every property */
+    public static final PropertyFilter ALL = new PropertyFilter(Collections.emptyList(), Collections.emptyList());
+    
+    private final List<String> include;
+    private final List<String> ignore;
+    private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+    
+    public PropertyFilter(List<String> include, List<String> ignore) {
+        this.include = Collections.unmodifiableList(new ArrayList<>(include));
+        this.ignore = Collections.unmodifiableList(new ArrayList<>(ignore));
+    }
+    
+    /**
+     * Filter from comma-separated rule lists; blank lists have no rules
+     */
+    public static PropertyFilter parse(String include, String ignore) {
+        List<String> includeRules = split(include);
+        List<String> ignoreRules = split(ignore);
+        return includeRules.isEmpty() && ignoreRules.isEmpty() ? ALL : new PropertyFilter(includeRules, ignoreRules);
+    }
+    
+    private static List<String> split(String rules) {
+        List<String> result = new ArrayList<>();
+        if (rules != null) {
+            for (String rule : rules.split(",")) {
+                if (!rule.trim().isEmpty()) {
+                    result.add(rule.trim());
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Whether the property with this name takes part in the comparison
+     */
+    public boolean accepts(String name) {
+        if (isAll()) {
+            return true;
+        }
+        return decisions.computeIfAbsent(name, key -> (include.isEmpty() || matchesAny(include, key))
+            && !matchesAny(ignore, key));
+    }
+    
+    public boolean isAll() {
+        return include.isEmpty() && ignore.isEmpty();
+    }
+    
+    public List<String> getInclude() {
+        return include;
+    }
+    
+    public List<String> getIgnore() {
+        return ignore;
+    }
+    
+    private static boolean matchesAny(List<String> rules, String name) {
+        for (String rule : rules) {
+            if (rule.endsWith("*") ? name.startsWith(rule.substring(0, rule.length() - 1)) : name.equals(rule)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public String toString() {
+        return isAll() ? "all properties" : "include " + include + ", ignore " + ignore;
+    }
+}
\ No newline at end of file
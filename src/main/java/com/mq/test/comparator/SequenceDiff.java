@@ -0,0 +1,231 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.MQMessage;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aligns two ordered queue snapshots with Myers' O(ND) difference algorithm over payload digests.
+ * The result is an edit script expressed as an {@link AlignmentResult}: matched pairs, messages
+ * deleted from Queue1 and messages inserted in Queue2.
+ *
+ * <p>Common prefixes and suffixes are stripped before searching, and the middle-snake bisection keeps
+ * memory linear in the segment length. The search depth is capped by an edit budget: a segment that
+ * needs more edits than the budget is reported as a block delete plus a block insert, which is a
+ * valid (if not minimal) script.
+ */
+public class SequenceDiff {
+    
+    /** Default maximum edit distance explored per bisection */
+    public static final int DEFAULT_MAX_EDITS = 100_000;
+    
+    private final long[] a;
+    private final long[] b;
+    private final int maxEdits;
+    private final IntList matched1 = new IntList();
+    private final IntList matched2 = new IntList();
+    private final IntList deleted = new IntList();
+    private final IntList inserted = new IntList();
+    
+    private SequenceDiff(long[] a, long[] b, int maxEdits) {
+        this.a = a;
+        this.b = b;
+        this.maxEdits = maxEdits;
+    }
+    
+    /**
+     * Diff two queues by payload digest. Digest collisions surface as payload mismatches on the matched pair.
+     */
+    public static AlignmentResult diff(List<MQMessage> queue1, List<MQMessage> queue2, int maxEdits) {
+        return diff(digests(queue1), digests(queue2), maxEdits);
+    }
+    
+    /**
+     * Diff two digest sequences
+     */
+    public static AlignmentResult diff(long[] a, long[] b, int maxEdits) {
+        if (maxEdits <= 0) {
+            throw new IllegalArgumentException("Edit budget must be positive: " + maxEdits);
+        }
+        SequenceDiff diff = new SequenceDiff(a, b, maxEdits);
+        diff.diff(0, a.length, 0, b.length);
+        return new AlignmentResult(diff.matched1.toArray(), diff.matched2.toArray(), diff.matched1.size(),
+            diff.deleted.toArray(), diff.inserted.toArray(), AlignmentResult.Mode.SEQUENCE);
+    }
+    
+    private static long[] digests(List<MQMessage> messages) {
+        long[] digests = new long[messages.size()];
+        for (int i = 0; i < digests.length; i++) {
+            byte[] payload = messages.get(i).getPayloadBytes();
+            digests[i] = payload == null ? 0L : DuplicateDetector.digest(payload);
+        }
+        return digests;
+    }
+    
+    private void diff(int aStart, int aEnd, int bStart, int bEnd) {
+        int prefix = 0;
+        while (aStart + prefix < aEnd && bStart + prefix < bEnd && a[aStart + prefix] == b[bStart + prefix]) {
+            prefix++;
+        }
+        for (int i = 0; i < prefix; i++) {
+            match(aStart + i, bStart + i);
+        }
+        aStart += prefix;
+        bStart += prefix;
+        
+        int suffix = 0;
+        while (aEnd - suffix > aStart && bEnd - suffix > bStart && a[aEnd - suffix - 1] == b[bEnd - suffix - 1]) {
+            suffix++;
+        }
+        aEnd -= suffix;
+        bEnd -= suffix;
+        
+        if (aStart == aEnd) {
+            insertRange(bStart, bEnd);
+        } else if (bStart == bEnd) {
+            deleteRange(aStart, aEnd);
+        } else {
+            bisect(aStart, aEnd, bStart, bEnd);
+        }
+        
+        for (int i = 0; i < suffix; i++) {
+            match(aEnd + i, bEnd + i);
+        }
+    }
+    
+    /**
+     * Find the middle snake of the edit graph and recurse on both halves
+     */
+    private void bisect(int aStart, int aEnd, int bStart, int bEnd) {
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        int maxD = Math.min((n + m + 1) / 2, maxEdits);
+        int offset = maxD;
+        int length = 2 * maxD + 2;
+        int[] forward = new int[length];
+        int[] reverse = new int[length];
+        Arrays.fill(forward, -1);
+        Arrays.fill(reverse, -1);
+        forward[offset + 1] = 0;
+        reverse[offset + 1] = 0;
+        int delta = n - m;
+        boolean front = (delta % 2 != 0);
+        int k1Start = 0;
+        int k1End = 0;
+        int k2Start = 0;
+        int k2End = 0;
+        
+        for (int d = 0; d < maxD; d++) {
+            for (int k1 = -d + k1Start; k1 <= d - k1End; k1 += 2) {
+                int k1Offset = offset + k1;
+                int x1;
+                if (k1 == -d || (k1 != d && forward[k1Offset - 1] < forward[k1Offset + 1])) {
+                    x1 = forward[k1Offset + 1];
+                } else {
+                    x1 = forward[k1Offset - 1] + 1;
+                }
+                int y1 = x1 - k1;
+                while (x1 < n && y1 < m && a[aStart + x1] == b[bStart + y1]) {
+                    x1++;
+                    y1++;
+                }
+                forward[k1Offset] = x1;
+                if (x1 > n) {
+                    k1End += 2;
+                } else if (y1 > m) {
+                    k1Start += 2;
+                } else if (front) {
+                    int k2Offset = offset + delta - k1;
+                    if (k2Offset >= 0 && k2Offset < length && reverse[k2Offset] != -1) {
+                        int x2 = n - reverse[k2Offset];
+                        if (x1 >= x2) {
+                            split(aStart, aEnd, bStart, bEnd, x1, y1);
+                            return;
+                        }
+                    }
+                }
+            }
+            
+            for (int k2 = -d + k2Start; k2 <= d - k2End; k2 += 2) {
+                int k2Offset = offset + k2;
+                int x2;
+                if (k2 == -d || (k2 != d && reverse[k2Offset - 1] < reverse[k2Offset + 1])) {
+                    x2 = reverse[k2Offset + 1];
+                } else {
+                    x2 = reverse[k2Offset - 1] + 1;
+                }
+                int y2 = x2 - k2;
+                while (x2 < n && y2 < m && a[aEnd - x2 - 1] == b[bEnd - y2 - 1]) {
+                    x2++;
+                    y2++;
+                }
+                reverse[k2Offset] = x2;
+                if (x2 > n) {
+                    k2End += 2;
+                } else if (y2 > m) {
+                    k2Start += 2;
+                } else if (!front) {
+                    int k1Offset = offset + delta - k2;
+                    if (k1Offset >= 0 && k1Offset < length && forward[k1Offset] != -1) {
+                        int x1 = forward[k1Offset];
+                        int y1 = offset + x1 - k1Offset;
+                        if (x1 >= n - x2) {
+                            split(aStart, aEnd, bStart, bEnd, x1, y1);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        
+        // Edit budget exhausted or nothing in common: replace the whole segment
+        deleteRange(aStart, aEnd);
+        insertRange(bStart, bEnd);
+    }
+    
+    private void split(int aStart, int aEnd, int bStart, int bEnd, int x, int y) {
+        diff(aStart, aStart + x, bStart, bStart + y);
+        diff(aStart + x, aEnd, bStart + y, bEnd);
+    }
+    
+    private void match(int i, int j) {
+        matched1.add(i);
+        matched2.add(j);
+    }
+    
+    private void deleteRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            deleted.add(i);
+        }
+    }
+    
+    private void insertRange(int from, int to) {
+        for (int j = from; j < to; j++) {
+            inserted.add(j);
+        }
+    }
+    
+    /**
+     * Minimal growable int array to avoid boxing millions of positions
+     */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+        
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        private int size() {
+            return size;
+        }
+        
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
\ No newline at end of file
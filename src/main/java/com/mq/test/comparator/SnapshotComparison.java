@@ -0,0 +1,114 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.CcsidCharsets;
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.util.SnapshotReader;
+import com.mq.test.util.SnapshotRecord;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Compares two mapped snapshot files by position without decoding matching records. Fixed MQMD fields,
+ * payloads and encoded properties are compared as slices of the mappings; only a pair that might fail a
+ * check is decoded into messages and handed to the {@link ComparisonEngine}, so results are identical
+ * to comparing the decoded queues.
+ */
+public class SnapshotComparison {
+    
+    private static final int OTHER = 0;
+    private static final int JSON = 1;
+    private static final int XML = 2;
+    
+    private final Map<ComparisonCheck, ComparisonResult> results;
+    private final int queue1Count;
+    private final int queue2Count;
+    private final int decodedPairs;
+    
+    private SnapshotComparison(Map<ComparisonCheck, ComparisonResult> results, int queue1Count, int queue2Count,
+                               int decodedPairs) {
+        this.results = results;
+        this.queue1Count = queue1Count;
+        this.queue2Count = queue2Count;
+        this.decodedPairs = decodedPairs;
+    }
+    
+    /**
+     * Run the plan over indices 0 to min(size1, size2) - 1 of both snapshots
+     */
+    public static SnapshotComparison run(ComparisonPlan plan, SnapshotReader queue1, SnapshotReader queue2) {
+        boolean checkPayloadBytes = plan.includes(ComparisonCheck.PAYLOAD)
+            || plan.includes(ComparisonCheck.PAYLOAD_CHECKSUM);
+        boolean checkPayloadLength = plan.includes(ComparisonCheck.PAYLOAD_LENGTH);
+        boolean checkPayloadStructure = plan.includes(ComparisonCheck.PAYLOAD_STRUCTURE);
+        boolean checkMessageId = plan.includes(ComparisonCheck.MESSAGE_ID);
+        boolean checkCorrelationId = plan.includes(ComparisonCheck.CORRELATION_ID);
+        boolean checkPriority = plan.includes(ComparisonCheck.PRIORITY);
+        boolean checkFormat = plan.includes(ComparisonCheck.FORMAT);
+        boolean checkProperties = plan.includes(ComparisonCheck.PROPERTIES);
+        
+        ComparisonEngine engine = new ComparisonEngine(plan);
+        int pairs = Math.min(queue1.size(), queue2.size());
+        int decoded = 0;
+        for (int i = 0; i < pairs; i++) {
+            SnapshotRecord record1 = queue1.getRecord(i);
+            SnapshotRecord record2 = queue2.getRecord(i);
+            boolean samePayload = record1.getCharacterSet() == record2.getCharacterSet()
+                && record1.getPayload().equals(record2.getPayload());
+            boolean matched = (!checkPayloadBytes || samePayload)
+                && (!checkPayloadLength || record1.getPayloadLength() == record2.getPayloadLength())
+                && (!checkPayloadStructure || samePayload || sameStructure(record1, record2))
+                && (!checkMessageId || record1.getMessageId().equals(record2.getMessageId()))
+                && (!checkCorrelationId || record1.getCorrelationId().equals(record2.getCorrelationId()))
+                && (!checkPriority || record1.getPriority() == record2.getPriority())
+                && (!checkFormat || record1.getFormat().equals(record2.getFormat()))
+                && (!checkProperties || record1.getProperties().equals(record2.getProperties()));
+            if (!matched || !engine.advance(record1.getTimestamp(), record2.getTimestamp())) {
+                engine.compare(i, queue1.get(i), queue2.get(i));
+                decoded++;
+            }
+        }
+        return new SnapshotComparison(engine.getResults(), queue1.size(), queue2.size(), decoded);
+    }
+    
+    /**
+     * Whether both payloads open with the same kind of document. Only ASCII-compatible payloads are
+     * inspected in place; anything else is left to the engine.
+     */
+    private static boolean sameStructure(SnapshotRecord record1, SnapshotRecord record2) {
+        if (!CcsidCharsets.isAsciiCompatible(record1.getCharacterSet())
+                || !CcsidCharsets.isAsciiCompatible(record2.getCharacterSet())) {
+            return false;
+        }
+        return structure(record1.getPayload()) == structure(record2.getPayload());
+    }
+    
+    private static int structure(ByteBuffer payload) {
+        for (int i = payload.position(); i < payload.limit(); i++) {
+            int b = payload.get(i) & 0xFF;
+            if (b > ' ') {
+                return b == '{' || b == '[' ? JSON : b == '<' ? XML : OTHER;
+            }
+        }
+        return OTHER;
+    }
+    
+    public Map<ComparisonCheck, ComparisonResult> getResults() {
+        return results;
+    }
+    
+    public int getQueue1Count() {
+        return queue1Count;
+    }
+    
+    public int getQueue2Count() {
+        return queue2Count;
+    }
+    
+    /**
+     * Number of pairs that could not be settled from the mapped bytes and were decoded into messages
+     */
+    public int getDecodedPairs() {
+        return decodedPairs;
+    }
+}
\ No newline at end of file
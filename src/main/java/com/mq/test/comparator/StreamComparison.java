@@ -0,0 +1,200 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQMessage;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Compares two message streams in lockstep, holding only the current pair in memory. Once the shorter
+ * stream ends, the longer one is drained and counted so the message count can still be reported.
+ */
+public class StreamComparison {
+    
+    private final Map<ComparisonCheck, ComparisonResult> results;
+    private final int queue1Count;
+    private final int queue2Count;
+    private final long queue1Fingerprint;
+    private final long queue2Fingerprint;
+    
+    private StreamComparison(Progress progress) {
+        this.results = progress.engine.getResults();
+        this.queue1Count = progress.count1;
+        this.queue2Count = progress.count2;
+        this.queue1Fingerprint = progress.fingerprint1;
+        this.queue2Fingerprint = progress.fingerprint2;
+    }
+    
+    /**
+     * Run the plan over two streams by position. Pairs are compared as they arrive; neither stream is buffered.
+     */
+    public static StreamComparison run(ComparisonPlan plan, Iterator<MQMessage> queue1, Iterator<MQMessage> queue2) {
+        return run(plan, queue1, queue2, null, null);
+    }
+    
+    /**
+     * Run the plan, saving a checkpoint every {@link CheckpointStore#getInterval()} messages and when a read
+     * fails; the checkpoint is deleted once both streams are exhausted. To resume, pass the loaded checkpoint
+     * with both streams positioned after its last message IDs; counts, fingerprints and partial results
+     * then continue from the checkpoint.
+     *
+     * @param checkpoints Where to save progress, or {@code null} to run without checkpoints
+     * @param resumeFrom Checkpoint of an interrupted run, or {@code null} to start from the beginning
+     */
+    public static StreamComparison run(ComparisonPlan plan, Iterator<MQMessage> queue1, Iterator<MQMessage> queue2,
+                                       CheckpointStore checkpoints, ComparisonCheckpoint resumeFrom) {
+        Progress progress = new Progress(plan, checkpoints, resumeFrom);
+        try {
+            while (queue1.hasNext() && queue2.hasNext()) {
+                MQMessage message1 = queue1.next();
+                MQMessage message2 = queue2.next();
+                progress.engine.compare(progress.compared, message1, message2);
+                progress.compared++;
+                progress.read1(message1);
+                progress.read2(message2);
+                progress.checkpointEvery(progress.compared);
+            }
+            while (queue1.hasNext()) {
+                progress.read1(queue1.next());
+                progress.checkpointEvery(progress.count1);
+            }
+            while (queue2.hasNext()) {
+                progress.read2(queue2.next());
+                progress.checkpointEvery(progress.count2);
+            }
+        } catch (RuntimeException e) {
+            if (checkpoints != null) {
+                try {
+                    progress.save();
+                } catch (RuntimeException saveFailure) {
+                    e.addSuppressed(saveFailure);
+                }
+            }
+            throw e;
+        }
+        if (checkpoints != null) {
+            checkpoints.delete();
+        }
+        return new StreamComparison(progress);
+    }
+    
+    public Map<ComparisonCheck, ComparisonResult> getResults() {
+        return results;
+    }
+    
+    public int getQueue1Count() {
+        return queue1Count;
+    }
+    
+    public int getQueue2Count() {
+        return queue2Count;
+    }
+    
+    /**
+     * Order-sensitive xxHash64 chain over the Queue1 payloads; equal for equal content read in the same order,
+     * whether or not the run was resumed
+     */
+    public long getQueue1Fingerprint() {
+        return queue1Fingerprint;
+    }
+    
+    public long getQueue2Fingerprint() {
+        return queue2Fingerprint;
+    }
+    
+    /**
+     * Message count result in the same form as {@link MessageComparator#compareMessageCount}
+     */
+    public ComparisonResult compareMessageCount() {
+        boolean passed = queue1Count == queue2Count;
+        String msg = String.format("Queue1: %d messages, Queue2: %d messages", queue1Count, queue2Count);
+        ComparisonResult result = new ComparisonResult(passed, msg);
+        if (!passed) {
+            result.addDifference("Message count mismatch");
+        }
+        return result;
+    }
+    
+    /**
+     * Running state of one stream comparison
+     */
+    private static final class Progress {
+        private final ComparisonEngine engine;
+        private final CheckpointStore checkpoints;
+        private int compared;
+        private int count1;
+        private int count2;
+        private MQMessage lastMessage1;
+        private MQMessage lastMessage2;
+        private String lastMessageId1;
+        private String lastMessageId2;
+        private long lastTimestamp1;
+        private long lastTimestamp2;
+        private long fingerprint1;
+        private long fingerprint2;
+        
+        private Progress(ComparisonPlan plan, CheckpointStore checkpoints, ComparisonCheckpoint resumeFrom) {
+            this.engine = new ComparisonEngine(plan);
+            this.checkpoints = checkpoints;
+            if (resumeFrom != null) {
+                engine.resume(resumeFrom);
+                compared = resumeFrom.getCompared();
+                count1 = resumeFrom.getQueue1Count();
+                count2 = resumeFrom.getQueue2Count();
+                lastMessageId1 = resumeFrom.getLastMessageId1();
+                lastMessageId2 = resumeFrom.getLastMessageId2();
+                lastTimestamp1 = resumeFrom.getLastTimestamp1();
+                lastTimestamp2 = resumeFrom.getLastTimestamp2();
+                fingerprint1 = resumeFrom.getFingerprint1();
+                fingerprint2 = resumeFrom.getFingerprint2();
+            }
+        }
+        
+        private void read1(MQMessage message) {
+            count1++;
+            lastMessage1 = message;
+            if (count1 <= compared) {
+                lastTimestamp1 = message.getTimestamp();
+            }
+            fingerprint1 = XxHash64.hash(payloadOf(message), fingerprint1);
+        }
+        
+        private void read2(MQMessage message) {
+            count2++;
+            lastMessage2 = message;
+            if (count2 <= compared) {
+                lastTimestamp2 = message.getTimestamp();
+            }
+            fingerprint2 = XxHash64.hash(payloadOf(message), fingerprint2);
+        }
+        
+        private void checkpointEvery(int count) {
+            if (checkpoints != null && count % checkpoints.getInterval() == 0) {
+                save();
+            }
+        }
+        
+        /**
+         * Message IDs are only rendered as hex here, not for every message read
+         */
+        private void save() {
+            if (lastMessage1 != null) {
+                lastMessageId1 = lastMessage1.getMessageId();
+                lastMessage1 = null;
+            }
+            if (lastMessage2 != null) {
+                lastMessageId2 = lastMessage2.getMessageId();
+                lastMessage2 = null;
+            }
+            checkpoints.save(new ComparisonCheckpoint(checkpoints.getQueue1Name(), checkpoints.getQueue2Name(),
+                compared, count1, count2, lastMessageId1, lastMessageId2, lastTimestamp1, lastTimestamp2,
+                fingerprint1, fingerprint2, engine.getResults()));
+        }
+        
+        private static byte[] payloadOf(MQMessage message) {
+            byte[] payload = message.getPayloadBytes();
+            return payload == null ? new byte[0] : payload;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.mq.test.config;
+
+/**
+ * Checkpointing of streaming comparison runs
+ */
+public class CheckpointConfiguration {
+    private boolean enabled;
+    private String path;
+    private int interval;
+    
+    public CheckpointConfiguration(boolean enabled, String path, int interval) {
+        this.enabled = enabled;
+        this.path = path;
+        this.interval = interval;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Local checkpoint file; an interrupted run leaves it behind and the next run resumes from it
+     */
+    public String getPath() {
+        return path;
+    }
+    
+    /**
+     * Messages read between checkpoints
+     */
+    public int getInterval() {
+        return interval;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.mq.test.config;
+
+import com.mq.test.comparator.ChecksumAlgorithm;
+import com.mq.test.comparator.DuplicateKey;
+import com.mq.test.comparator.PropertyFilter;
+
+/**
+ * Comparison engine configuration
+ */
+public class ComparisonConfiguration {
+    private boolean parallelEnabled;
+    private int parallelChunkSize;
+    private int parallelism;
+    private DuplicateKey duplicateKey;
+    private String alignmentKey;
+    private int diffMaxEdits;
+    private boolean streamingEnabled;
+    private ChecksumAlgorithm checksumAlgorithm;
+    private int maxDifferences;
+    private String snapshotDirectory;
+    private PropertyFilter propertyFilter;
+    
+    public ComparisonConfiguration(boolean parallelEnabled, int parallelChunkSize, int parallelism,
+                                   DuplicateKey duplicateKey, String alignmentKey, int diffMaxEdits,
+                                   boolean streamingEnabled, ChecksumAlgorithm checksumAlgorithm,
+                                   int maxDifferences, String snapshotDirectory, PropertyFilter propertyFilter) {
+        this.parallelEnabled = parallelEnabled;
+        this.parallelChunkSize = parallelChunkSize;
+        this.parallelism = parallelism;
+        this.duplicateKey = duplicateKey;
+        this.alignmentKey = alignmentKey;
+        this.diffMaxEdits = diffMaxEdits;
+        this.streamingEnabled = streamingEnabled;
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.maxDifferences = maxDifferences;
+        this.snapshotDirectory = snapshotDirectory;
+        this.propertyFilter = propertyFilter;
+    }
+    
+    public boolean isParallelEnabled() {
+        return parallelEnabled;
+    }
+    
+    public int getParallelChunkSize() {
+        return parallelChunkSize;
+    }
+    
+    /**
+     * Number of worker threads for parallel comparison; 0 uses the common ForkJoinPool
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    public DuplicateKey getDuplicateKey() {
+        return duplicateKey;
+    }
+    
+    /**
+     * Key used to pair messages across queues: POSITION, SEQUENCE_DIFF, CORRELATION_ID, MESSAGE_ID,
+     * GLOBAL_ID, PREFIX:&lt;n&gt; or JSON:&lt;field&gt;
+     */
+    public String getAlignmentKey() {
+        return alignmentKey;
+    }
+    
+    public boolean isSequenceDiff() {
+        return "SEQUENCE_DIFF".equalsIgnoreCase(alignmentKey);
+    }
+    
+    /**
+     * Edit budget for SEQUENCE_DIFF alignment; segments needing more edits are reported as block replacements
+     */
+    public int getDiffMaxEdits() {
+        return diffMaxEdits;
+    }
+    
+    /**
+     * Whether to additionally compare the full queues as lazy streams in constant memory (browse mode only)
+     */
+    public boolean isStreamingEnabled() {
+        return streamingEnabled;
+    }
+    
+    /**
+     * Digest used by the payload checksum check: CRC32C, XXHASH64 or SHA_256
+     */
+    public ChecksumAlgorithm getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+    
+    /**
+     * Differences recorded per check for the report; further differences are only counted
+     */
+    public int getMaxDifferences() {
+        return maxDifferences;
+    }
+    
+    /**
+     * Directory to save snapshot files of both queues after reading them; empty to skip
+     */
+    public String getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+    
+    /**
+     * Message properties to compare, from comma-separated include and ignore rules (exact names or prefix*)
+     */
+    public PropertyFilter getPropertyFilter() {
+        return propertyFilter;
+    }
+}
\ No newline at end of file
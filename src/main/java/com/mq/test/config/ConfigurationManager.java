@@ -1,5 +1,11 @@
 package com.mq.test.config;
 
+import com.mq.test.comparator.ChecksumAlgorithm;
+import com.mq.test.comparator.DuplicateKey;
+import com.mq.test.comparator.PropertyFilter;
+import com.mq.test.comparator.SequenceDiff;
+import com.mq.test.model.ComparisonResult;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
@@ -71,6 +77,21 @@ public class ConfigurationManager {
         );
     }
     
+    /**
+     * Get MQ connection pool configuration
+     */
+    public static ConnectionPoolConfiguration getPoolConfig() {
+        if (properties == null) {
+            throw new IllegalStateException("Configuration not loaded. Call loadConfiguration() first.");
+        }
+        
+        return new ConnectionPoolConfiguration(
+            getPropertyAsInt("mq.pool.max.size", 4),
+            getPropertyAsLong("mq.pool.idle.timeout.ms", 60000L),
+            getPropertyAsLong("mq.pool.borrow.timeout.ms", 30000L)
+        );
+    }
+    
     /**
      * Get queue configuration
      */
@@ -83,7 +104,10 @@ public class ConfigurationManager {
             getProperty("queue1.name"),
             getProperty("queue2.name"),
             getPropertyAsInt("queue.max.messages", 1000),
-            getPropertyAsBoolean("queue.browse.mode", true)
+            getPropertyAsBoolean("queue.browse.mode", true),
+            getPropertyAsInt("queue.get.batch.size", 0),
+            getPropertyAsBoolean("queue.read.ahead", false),
+            getPropertyAsInt("queue.get.buffer.size", 0)
         );
     }
     
@@ -103,6 +127,45 @@ public class ConfigurationManager {
         );
     }
     
+    /**
+     * Get comparison engine configuration
+     */
+    public static ComparisonConfiguration getComparisonConfig() {
+        if (properties == null) {
+            throw new IllegalStateException("Configuration not loaded. Call loadConfiguration() first.");
+        }
+        
+        return new ComparisonConfiguration(
+            getPropertyAsBoolean("comparison.parallel.enabled", false),
+            getPropertyAsInt("comparison.parallel.chunk.size", 50000),
+            getPropertyAsInt("comparison.parallel.threads", 0),
+            getPropertyAsEnum("duplicate.check.key", DuplicateKey.class, DuplicateKey.PAYLOAD),
+            getProperty("comparison.alignment.key", "POSITION"),
+            getPropertyAsInt("comparison.diff.max.edits", SequenceDiff.DEFAULT_MAX_EDITS),
+            getPropertyAsBoolean("comparison.streaming.enabled", false),
+            getPropertyAsEnum("comparison.checksum.algorithm", ChecksumAlgorithm.class, ChecksumAlgorithm.XXHASH64),
+            getPropertyAsInt("comparison.max.differences", ComparisonResult.DEFAULT_MAX_DIFFERENCES),
+            getProperty("comparison.snapshot.dir", ""),
+            PropertyFilter.parse(getProperty("comparison.properties.include", ""),
+                getProperty("comparison.properties.ignore", ""))
+        );
+    }
+    
+    /**
+     * Get checkpoint configuration for streaming comparison runs
+     */
+    public static CheckpointConfiguration getCheckpointConfig() {
+        if (properties == null) {
+            throw new IllegalStateException("Configuration not loaded. Call loadConfiguration() first.");
+        }
+        
+        return new CheckpointConfiguration(
+            getPropertyAsBoolean("comparison.checkpoint.enabled", false),
+            getProperty("comparison.checkpoint.path", "target/comparison.checkpoint"),
+            getPropertyAsInt("comparison.checkpoint.interval", 10000)
+        );
+    }
+    
     /**
      * Get property value
      */
@@ -167,6 +230,23 @@ public class ConfigurationManager {
         return Boolean.parseBoolean(value);
     }
     
+    /**
+     * Get property as enum constant (case-insensitive)
+     */
+    public static <E extends Enum<E>> E getPropertyAsEnum(String key, Class<E> type, E defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println(String.format("Invalid value for '%s': %s. Using default: %s", 
+                key, value, defaultValue));
+            return defaultValue;
+        }
+    }
+    
     /**
      * Get current environment name
      */
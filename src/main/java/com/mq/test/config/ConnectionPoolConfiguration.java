@@ -0,0 +1,37 @@
+package com.mq.test.config;
+
+/**
+ * MQ connection pool configuration
+ */
+public class ConnectionPoolConfiguration {
+    private int maxSize;
+    private long idleTimeoutMs;
+    private long borrowTimeoutMs;
+    
+    public ConnectionPoolConfiguration(int maxSize, long idleTimeoutMs, long borrowTimeoutMs) {
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+    
+    /**
+     * Maximum open connections per queue manager connection configuration
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * Idle connections older than this are disconnected
+     */
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+    
+    /**
+     * How long a borrower waits for a free connection once the pool is at its maximum size
+     */
+    public long getBorrowTimeoutMs() {
+        return borrowTimeoutMs;
+    }
+}
@@ -1,5 +1,7 @@
 package com.mq.test.config;
 
+import java.util.Objects;
+
 /**
  * Configuration class for IBM MQ connection parameters
  */
@@ -44,4 +46,35 @@ public class MQConnectionConfig {
     public String getPassword() { 
         return password; 
     }
+    
+    /**
+     * Configurations are equal when they connect to the same queue manager with the same credentials,
+     * so they can key pooled connections
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MQConnectionConfig)) {
+            return false;
+        }
+        MQConnectionConfig other = (MQConnectionConfig) o;
+        return port == other.port
+            && Objects.equals(host, other.host)
+            && Objects.equals(queueManager, other.queueManager)
+            && Objects.equals(channel, other.channel)
+            && Objects.equals(username, other.username)
+            && Objects.equals(password, other.password);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port, queueManager, channel, username);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s@%s:%d/%s", queueManager, host, port, channel);
+    }
 }
\ No newline at end of file
@@ -8,12 +8,19 @@ public class QueueConfiguration {
     private String queue2Name;
     private int maxMessages;
     private boolean browseMode;
+    private int batchSize;
+    private boolean readAhead;
+    private int bufferSize;
     
-    public QueueConfiguration(String queue1Name, String queue2Name, int maxMessages, boolean browseMode) {
+    public QueueConfiguration(String queue1Name, String queue2Name, int maxMessages, boolean browseMode,
+                              int batchSize, boolean readAhead, int bufferSize) {
         this.queue1Name = queue1Name;
         this.queue2Name = queue2Name;
         this.maxMessages = maxMessages;
         this.browseMode = browseMode;
+        this.batchSize = batchSize;
+        this.readAhead = readAhead;
+        this.bufferSize = bufferSize;
     }
     
     public String getQueue1Name() {
@@ -31,4 +38,25 @@ public class QueueConfiguration {
     public boolean isBrowseMode() {
         return browseMode;
     }
+    
+    /**
+     * Destructive GETs committed per syncpoint batch; 0 reads outside syncpoint
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * Whether queues are opened with read-ahead
+     */
+    public boolean isReadAhead() {
+        return readAhead;
+    }
+    
+    /**
+     * Initial size of the reused GET buffer; 0 allocates a new MQ message per GET
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.mq.test.model;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps IBM MQ coded character set identifiers to Java charsets
+ */
+public final class CcsidCharsets {
+    
+    /** UTF-8, the queue manager default for text messages */
+    public static final int UTF_8 = 1208;
+    
+    private static final Map<Integer, Charset> CACHE = new ConcurrentHashMap<>();
+    
+    private CcsidCharsets() {}
+    
+    /**
+     * Charset for a CCSID; unknown or unsupported CCSIDs fall back to UTF-8
+     */
+    public static Charset forCcsid(int ccsid) {
+        return CACHE.computeIfAbsent(ccsid, CcsidCharsets::lookup);
+    }
+    
+    /**
+     * Whether bytes 0x00-0x7F mean the same characters as in ASCII, so whitespace and markup
+     * delimiters can be detected without decoding
+     */
+    public static boolean isAsciiCompatible(int ccsid) {
+        switch (ccsid) {
+            case 0:
+            case 367:
+            case 437:
+            case 819:
+            case 850:
+            case 1208:
+            case 1252:
+            case 5348:
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    private static Charset lookup(int ccsid) {
+        switch (ccsid) {
+            case 0:
+            case 1208:
+                return StandardCharsets.UTF_8;
+            case 367:
+                return StandardCharsets.US_ASCII;
+            case 819:
+                return StandardCharsets.ISO_8859_1;
+            case 1200:
+                return StandardCharsets.UTF_16BE;
+            case 1252:
+            case 5348:
+                return charset("windows-1252");
+            default:
+                return charset(String.format("IBM%03d", ccsid));
+        }
+    }
+    
+    private static Charset charset(String name) {
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
\ No newline at end of file
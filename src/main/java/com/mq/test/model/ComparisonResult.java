@@ -1,24 +1,87 @@
 package com.mq.test.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Model class to hold comparison results
+ * Model class to hold comparison results. At most {@code maxDifferences} difference records are kept;
+ * the total count and per-field counts stay exact beyond that cap.
  */
 public class ComparisonResult {
+    public static final int DEFAULT_MAX_DIFFERENCES = 1000;
+    
     private boolean passed;
     private String message;
-    private List<String> differences;
+    private final int maxDifferences;
+    private final List<Difference> differences;
+    private final Map<String, Long> fieldCounts;
+    private long totalDifferences;
     
     public ComparisonResult(boolean passed, String message) {
+        this(passed, message, DEFAULT_MAX_DIFFERENCES);
+    }
+    
+    public ComparisonResult(boolean passed, String message, int maxDifferences) {
         this.passed = passed;
         this.message = message;
+        this.maxDifferences = maxDifferences;
         this.differences = new ArrayList<>();
+        this.fieldCounts = new LinkedHashMap<>();
     }
     
     public void addDifference(String diff) {
-        differences.add(diff);
+        addDifference(Difference.text(diff));
+    }
+    
+    /**
+     * Count a difference, keeping the record only while under the cap
+     */
+    public void addDifference(Difference diff) {
+        totalDifferences++;
+        if (diff.getField() != null) {
+            fieldCounts.merge(diff.getField(), 1L, Long::sum);
+        }
+        if (differences.size() < maxDifferences) {
+            differences.add(diff);
+        }
+    }
+    
+    /**
+     * Mark the result as failed with the given summary; differences already recorded are kept
+     */
+    public void markFailed(String message) {
+        this.passed = false;
+        this.message = message;
+    }
+    
+    /**
+     * Append the differences and counts of a result covering later messages. The merged result fails
+     * if either one failed, taking the later failure's summary.
+     */
+    public void merge(ComparisonResult later) {
+        if (!later.passed) {
+            markFailed(later.message);
+        }
+        for (Difference diff : later.differences) {
+            if (differences.size() >= maxDifferences) {
+                break;
+            }
+            differences.add(diff);
+        }
+        totalDifferences += later.totalDifferences;
+        later.fieldCounts.forEach((field, count) -> fieldCounts.merge(field, count, Long::sum));
+    }
+    
+    /**
+     * Replace the difference counters with saved values, e.g. when resuming from a checkpoint
+     */
+    public void restoreCounts(long totalDifferences, Map<String, Long> fieldCounts) {
+        this.totalDifferences = totalDifferences;
+        this.fieldCounts.clear();
+        this.fieldCounts.putAll(fieldCounts);
     }
     
     public boolean isPassed() { 
@@ -29,7 +92,43 @@ public class ComparisonResult {
         return message; 
     }
     
-    public List<String> getDifferences() { 
-        return differences; 
+    /**
+     * Report lines of the recorded differences, formatted on each call
+     */
+    public List<String> getDifferences() {
+        List<String> lines = new ArrayList<>(differences.size());
+        for (Difference diff : differences) {
+            lines.add(diff.toString());
+        }
+        return lines;
+    }
+    
+    public List<Difference> getDifferenceRecords() {
+        return Collections.unmodifiableList(differences);
+    }
+    
+    /**
+     * Number of differences found, including those beyond the cap
+     */
+    public long getTotalDifferences() {
+        return totalDifferences;
+    }
+    
+    /**
+     * Number of differences counted but not recorded because the cap was reached
+     */
+    public long getSuppressedDifferences() {
+        return totalDifferences - differences.size();
+    }
+    
+    /**
+     * Difference count per field, in order of first occurrence
+     */
+    public Map<String, Long> getFieldCounts() {
+        return Collections.unmodifiableMap(fieldCounts);
+    }
+    
+    public int getMaxDifferences() {
+        return maxDifferences;
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.mq.test.model;
+
+/**
+ * One difference found by a comparison: the message index, the field that differs and both values.
+ * The report line is only formatted when {@link #toString()} is called.
+ */
+public class Difference {
+    private final int index;
+    private final String field;
+    private final Object left;
+    private final Object right;
+    private final String format;
+    private final Object[] args;
+    
+    /**
+     * @param index Message position the difference refers to, or -1 if it is not tied to one message
+     * @param field Name of the differing field, used for the per-field histogram; may be {@code null}
+     * @param left Queue1 value
+     * @param right Queue2 value
+     * @param format Report line pattern for {@link String#format}
+     * @param args Arguments for the pattern
+     */
+    public Difference(int index, String field, Object left, Object right, String format, Object... args) {
+        this.index = index;
+        this.field = field;
+        this.left = left;
+        this.right = right;
+        this.format = format;
+        this.args = args;
+    }
+    
+    /**
+     * Free-text difference with no structured fields
+     */
+    public static Difference text(String text) {
+        return new Difference(-1, null, null, null, text, (Object[]) null);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public String getField() {
+        return field;
+    }
+    
+    public Object getLeft() {
+        return left;
+    }
+    
+    public Object getRight() {
+        return right;
+    }
+    
+    @Override
+    public String toString() {
+        return args == null ? format : String.format(format, args);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.mq.test.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A 24-byte MQ message or correlation identifier held as three longs. Equality and hashing work on the
+ * raw value; the 48-digit hex form is only rendered when asked for, and then cached.
+ */
+public final class MQId {
+    
+    /** Length of MQMD message and correlation IDs in bytes */
+    public static final int LENGTH = 24;
+    
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    
+    private final long high;
+    private final long middle;
+    private final long low;
+    private String hex;
+    
+    private MQId(long high, long middle, long low) {
+        this.high = high;
+        this.middle = middle;
+        this.low = low;
+    }
+    
+    /**
+     * Identifier from MQMD bytes; shorter arrays are padded with zeros as MQ does
+     *
+     * @throws IllegalArgumentException if the array is longer than 24 bytes
+     */
+    public static MQId of(byte[] bytes) {
+        if (bytes.length == LENGTH) {
+            return of(bytes, 0);
+        }
+        if (bytes.length > LENGTH) {
+            throw new IllegalArgumentException("MQ identifiers are " + LENGTH + " bytes, got " + bytes.length);
+        }
+        byte[] padded = new byte[LENGTH];
+        System.arraycopy(bytes, 0, padded, 0, bytes.length);
+        return of(padded, 0);
+    }
+    
+    /**
+     * Identifier from the 24 bytes at {@code offset}
+     */
+    public static MQId of(byte[] bytes, int offset) {
+        return new MQId((long) LONGS.get(bytes, offset), (long) LONGS.get(bytes, offset + 8),
+            (long) LONGS.get(bytes, offset + 16));
+    }
+    
+    /**
+     * Identifier from the 24 bytes at absolute {@code offset} of a big-endian buffer
+     */
+    public static MQId of(ByteBuffer buffer, int offset) {
+        return new MQId(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16));
+    }
+    
+    /**
+     * Parse 48 hex digits (either case)
+     *
+     * @return the identifier, or {@code null} if the text is not exactly 48 hex digits
+     */
+    public static MQId parse(String hex) {
+        if (hex == null || hex.length() != 2 * LENGTH) {
+            return null;
+        }
+        long[] words = new long[3];
+        for (int i = 0; i < hex.length(); i++) {
+            int digit = Character.digit(hex.charAt(i), 16);
+            if (digit < 0) {
+                return null;
+            }
+            words[i / 16] = (words[i / 16] << 4) | digit;
+        }
+        return new MQId(words[0], words[1], words[2]);
+    }
+    
+    public byte[] toBytes() {
+        byte[] bytes = new byte[LENGTH];
+        copyTo(bytes, 0);
+        return bytes;
+    }
+    
+    /**
+     * Write the 24 bytes into {@code target} at {@code offset}
+     */
+    public void copyTo(byte[] target, int offset) {
+        LONGS.set(target, offset, high);
+        LONGS.set(target, offset + 8, middle);
+        LONGS.set(target, offset + 16, low);
+    }
+    
+    /**
+     * Upper-case hex form, rendered on first call
+     */
+    public String toHex() {
+        String result = hex;
+        if (result == null) {
+            char[] chars = new char[2 * LENGTH];
+            putHex(chars, 0, high);
+            putHex(chars, 16, middle);
+            putHex(chars, 32, low);
+            result = new String(chars);
+            hex = result;
+        }
+        return result;
+    }
+    
+    /**
+     * Upper-case hex form of arbitrary bytes
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[2 * bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+    
+    private static void putHex(char[] chars, int offset, long word) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX_DIGITS[(int) word & 0xF];
+            word >>>= 4;
+        }
+    }
+    
+    /**
+     * 64-bit hash of the raw value, for bucketing many identifiers
+     */
+    public long hash64() {
+        long hash = high * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ middle) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ low) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MQId)) {
+            return false;
+        }
+        MQId other = (MQId) o;
+        return high == other.high && middle == other.middle && low == other.low;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash64());
+    }
+    
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
\ No newline at end of file
@@ -1,15 +1,24 @@
 package com.mq.test.model;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
- * Model class representing an IBM MQ message
+ * Model class representing an IBM MQ message. The payload is held as the raw message body plus its
+ * CCSID and only decoded to text when a caller asks for {@link #getPayload()}.
  */
 public class MQMessage {
     private String messageId;
     private String correlationId;
+    private MQId messageIdValue;
+    private MQId correlationIdValue;
+    private byte[] payloadBytes;
+    private int characterSet = CcsidCharsets.UTF_8;
     private String payload;
+    // Algorithm and digest travel together, so concurrent comparisons never pair one's name with another's bytes
+    private volatile CachedDigest digest;
     private Map<String, Object> properties;
     private long timestamp;
     private int priority;
@@ -19,28 +28,153 @@ public class MQMessage {
         this.properties = new HashMap<>();
     }
     
+    /**
+     * Message ID as hex; rendered on first call when the ID was set as raw bytes
+     */
     public String getMessageId() { 
+        if (messageId == null && messageIdValue != null) {
+            messageId = messageIdValue.toHex();
+        }
         return messageId; 
     }
     
     public void setMessageId(String messageId) { 
         this.messageId = messageId; 
+        this.messageIdValue = MQId.parse(messageId);
     }
     
+    /**
+     * Raw message ID, or {@code null} if none is set or it was set as text that is not 48 hex digits
+     */
+    public MQId getMessageIdValue() {
+        return messageIdValue;
+    }
+    
+    public void setMessageId(MQId messageId) {
+        this.messageIdValue = messageId;
+        this.messageId = null;
+    }
+    
+    /**
+     * Whether both messages have the same message ID, compared as raw bytes where both IDs are binary
+     */
+    public boolean sameMessageId(MQMessage other) {
+        if (messageIdValue != null && other.messageIdValue != null) {
+            return messageIdValue.equals(other.messageIdValue);
+        }
+        return Objects.equals(getMessageId(), other.getMessageId());
+    }
+    
+    /**
+     * Correlation ID as hex; rendered on first call when the ID was set as raw bytes
+     */
     public String getCorrelationId() { 
+        if (correlationId == null && correlationIdValue != null) {
+            correlationId = correlationIdValue.toHex();
+        }
         return correlationId; 
     }
     
     public void setCorrelationId(String correlationId) { 
         this.correlationId = correlationId; 
+        this.correlationIdValue = MQId.parse(correlationId);
+    }
+    
+    /**
+     * Raw correlation ID, or {@code null} if none is set or it was set as text that is not 48 hex digits
+     */
+    public MQId getCorrelationIdValue() {
+        return correlationIdValue;
+    }
+    
+    public void setCorrelationId(MQId correlationId) {
+        this.correlationIdValue = correlationId;
+        this.correlationId = null;
     }
     
+    /**
+     * Correlation ID counterpart of {@link #sameMessageId}
+     */
+    public boolean sameCorrelationId(MQMessage other) {
+        if (correlationIdValue != null && other.correlationIdValue != null) {
+            return correlationIdValue.equals(other.correlationIdValue);
+        }
+        return Objects.equals(getCorrelationId(), other.getCorrelationId());
+    }
+    
+    /**
+     * Payload decoded with the message CCSID; decoded once on first call
+     */
     public String getPayload() { 
+        if (payload == null && payloadBytes != null) {
+            payload = new String(payloadBytes, CcsidCharsets.forCcsid(characterSet));
+        }
         return payload; 
     }
     
+    /**
+     * Set a text payload; it is encoded as UTF-8 (CCSID 1208) when bytes are requested
+     */
     public void setPayload(String payload) { 
         this.payload = payload; 
+        this.payloadBytes = null;
+        this.characterSet = CcsidCharsets.UTF_8;
+        this.digest = null;
+    }
+    
+    /**
+     * Raw message body. Callers must not modify the returned array.
+     */
+    public byte[] getPayloadBytes() {
+        if (payloadBytes == null && payload != null) {
+            payloadBytes = payload.getBytes(CcsidCharsets.forCcsid(characterSet));
+        }
+        return payloadBytes;
+    }
+    
+    /**
+     * Read-only view of the raw message body
+     */
+    public ByteBuffer getPayloadBuffer() {
+        byte[] bytes = getPayloadBytes();
+        return bytes == null ? null : ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+    
+    /**
+     * Set the raw message body and the CCSID it is encoded in; the array is kept, not copied
+     */
+    public void setPayloadBytes(byte[] payloadBytes, int characterSet) {
+        this.payloadBytes = payloadBytes;
+        this.characterSet = characterSet;
+        this.payload = null;
+        this.digest = null;
+    }
+    
+    /**
+     * Payload length in bytes
+     */
+    public int getPayloadLength() {
+        byte[] bytes = getPayloadBytes();
+        return bytes == null ? 0 : bytes.length;
+    }
+    
+    public int getCharacterSet() {
+        return characterSet;
+    }
+    
+    /**
+     * Payload digest previously cached for the given algorithm, or {@code null}
+     */
+    public byte[] getCachedDigest(String algorithm) {
+        CachedDigest cached = digest;
+        return cached != null && algorithm.equals(cached.algorithm) ? cached.bytes : null;
+    }
+    
+    /**
+     * Cache a payload digest; only the most recent algorithm is kept. Cleared when the payload changes.
+     */
+    public void cacheDigest(String algorithm, byte[] digest) {
+        this.digest = new CachedDigest(algorithm, digest);
     }
     
     public Map<String, Object> getProperties() { 
@@ -74,4 +208,14 @@ public class MQMessage {
     public void setFormat(String format) { 
         this.format = format; 
     }
+    
+    private static final class CachedDigest {
+        private final String algorithm;
+        private final byte[] bytes;
+        
+        CachedDigest(String algorithm, byte[] bytes) {
+            this.algorithm = algorithm;
+            this.bytes = bytes;
+        }
+    }
 }
\ No newline at end of file
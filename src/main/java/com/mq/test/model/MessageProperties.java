@@ -0,0 +1,109 @@
+package com.mq.test.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable message properties held as two arrays sorted by property name. Lookups are binary searches,
+ * and two property sets can be compared with a single merge over both arrays.
+ */
+public final class MessageProperties extends AbstractMap<String, Object> {
+    
+    public static final MessageProperties EMPTY = new MessageProperties(new String[0], new Object[0]);
+    
+    private final String[] names;
+    private final Object[] values;
+    
+    private MessageProperties(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+    
+    /**
+     * Sorted copy of a property map; returned as is if it already is one
+     */
+    public static MessageProperties of(Map<String, Object> properties) {
+        if (properties instanceof MessageProperties) {
+            return (MessageProperties) properties;
+        }
+        if (properties == null || properties.isEmpty()) {
+            return EMPTY;
+        }
+        String[] names = properties.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        Object[] values = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = properties.get(names[i]);
+        }
+        return new MessageProperties(names, values);
+    }
+    
+    @Override
+    public int size() {
+        return names.length;
+    }
+    
+    /**
+     * Name of the i-th property in name order
+     */
+    public String name(int index) {
+        return names[index];
+    }
+    
+    /**
+     * Value of the i-th property in name order
+     */
+    public Object value(int index) {
+        return values[index];
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && Arrays.binarySearch(names, key) >= 0;
+    }
+    
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int index = Arrays.binarySearch(names, key);
+        return index >= 0 ? values[index] : null;
+    }
+    
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new Iterator<Map.Entry<String, Object>>() {
+                    private int next;
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next < names.length;
+                    }
+                    
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        if (next >= names.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(names[index], values[index]);
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return names.length;
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.mq.test.model;
+
+import java.util.List;
+
+/**
+ * Outcome of reading one queue: the messages read, or the failure, plus read timing
+ */
+public class QueueReadResult {
+    private final String queueName;
+    private final List<MQMessage> messages;
+    private final Exception error;
+    private final long elapsedMs;
+    
+    public QueueReadResult(String queueName, List<MQMessage> messages, Exception error, long elapsedMs) {
+        this.queueName = queueName;
+        this.messages = messages;
+        this.error = error;
+        this.elapsedMs = elapsedMs;
+    }
+    
+    public String getQueueName() {
+        return queueName;
+    }
+    
+    /**
+     * Messages read, or {@code null} if the read failed
+     */
+    public List<MQMessage> getMessages() {
+        return messages;
+    }
+    
+    public Exception getError() {
+        return error;
+    }
+    
+    public boolean isSuccessful() {
+        return error == null;
+    }
+    
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+    
+    /**
+     * Messages read per second; 0 if the read failed
+     */
+    public double getThroughput() {
+        if (messages == null) {
+            return 0.0;
+        }
+        return elapsedMs > 0 ? messages.size() * 1000.0 / elapsedMs : messages.size() * 1000.0;
+    }
+    
+    /**
+     * Rethrow the original read failure, if any, so callers can route it through their usual handlers
+     */
+    public void rethrowIfFailed() throws Exception {
+        if (error != null) {
+            throw error;
+        }
+    }
+}
\ No newline at end of file
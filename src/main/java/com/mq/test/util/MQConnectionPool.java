@@ -0,0 +1,287 @@
+package com.mq.test.util;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.MQQueueManager;
+import com.ibm.mq.constants.MQConstants;
+import com.mq.test.config.ConnectionPoolConfiguration;
+import com.mq.test.config.MQConnectionConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reusable pool of queue manager connections keyed by {@link MQConnectionConfig}. Each pooled
+ * connection caches its open queue handles, so repeated reads and puts skip both the channel
+ * handshake and MQOPEN.
+ *
+ * <p>Connections idle for more than a few seconds are checked with an MQINQ round trip on borrow,
+ * and disconnected once idle longer than the configured timeout; eviction runs lazily on borrow and release, so the pool needs
+ * no background thread. At most {@code maxSize} connections are open per configuration; further borrowers wait
+ * up to the borrow timeout.
+ */
+public class MQConnectionPool implements AutoCloseable {
+    
+    private static final long PING_AFTER_IDLE_MS = 5_000L;
+    
+    private static MQConnectionPool defaultPool;
+    
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final Map<MQConnectionConfig, Slot> slots = new HashMap<>();
+    private boolean closed;
+    
+    public MQConnectionPool(int maxSize, long idleTimeoutMs, long borrowTimeoutMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+    
+    public MQConnectionPool(ConnectionPoolConfiguration config) {
+        this(config.getMaxSize(), config.getIdleTimeoutMs(), config.getBorrowTimeoutMs());
+    }
+    
+    /**
+     * Shared pool used by the reader and setup helpers; created with defaults on first use
+     */
+    public static synchronized MQConnectionPool getDefault() {
+        if (defaultPool == null) {
+            defaultPool = new MQConnectionPool(4, 60_000L, 30_000L);
+        }
+        return defaultPool;
+    }
+    
+    /**
+     * Replace the shared pool, closing the previous one
+     */
+    public static synchronized void configureDefault(ConnectionPoolConfiguration config) {
+        shutdownDefault();
+        defaultPool = new MQConnectionPool(config);
+    }
+    
+    /**
+     * Close the shared pool; the next {@link #getDefault()} creates a fresh one
+     */
+    public static synchronized void shutdownDefault() {
+        if (defaultPool != null) {
+            defaultPool.close();
+            defaultPool = null;
+        }
+    }
+    
+    /**
+     * Borrow a healthy connection, reusing an idle one when available. Close the returned
+     * connection to hand it back.
+     *
+     * @throws MQException if a new connection cannot be established
+     * @throws IllegalStateException if the pool is closed or no connection frees up within the borrow timeout
+     */
+    public PooledMQConnection borrow(MQConnectionConfig config) throws MQException {
+        long deadline = System.currentTimeMillis() + borrowTimeoutMs;
+        while (true) {
+            PooledMQConnection reused = reserve(config, deadline);
+            if (reused == null) {
+                break;
+            }
+            // Round trip outside the lock; a channel dropped while idle only shows up here. Connections
+            // returned moments ago are trusted so back-to-back borrows stay free of extra round trips.
+            if (System.currentTimeMillis() - reused.getIdleSince() < PING_AFTER_IDLE_MS || reused.ping()) {
+                return reused;
+            }
+            synchronized (this) {
+                slots.get(config).open--;
+                notifyAll();
+            }
+            reused.disconnect();
+        }
+        
+        // Connect outside the lock; reserve() counted the new connection as open
+        try {
+            MQQueueManager qMgr = new MQQueueManager(config.getQueueManager(), connectionProperties(config));
+            PooledMQConnection connection = new PooledMQConnection(this, config, qMgr);
+            connection.markBorrowed();
+            return connection;
+        } catch (MQException | RuntimeException e) {
+            synchronized (this) {
+                slots.get(config).open--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Take an idle connection, or reserve room for a new one and return null
+     */
+    private PooledMQConnection reserve(MQConnectionConfig config, long deadline) {
+        List<PooledMQConnection> stale = new ArrayList<>();
+        try {
+            synchronized (this) {
+                while (true) {
+                    if (closed) {
+                        throw new IllegalStateException("Connection pool is closed");
+                    }
+                    Slot slot = slots.computeIfAbsent(config, key -> new Slot());
+                    evictExpired(slot, stale);
+                    while (!slot.idle.isEmpty()) {
+                        PooledMQConnection connection = slot.idle.pollFirst();
+                        if (connection.isHealthy()) {
+                            connection.markBorrowed();
+                            return connection;
+                        }
+                        slot.open--;
+                        stale.add(connection);
+                    }
+                    if (slot.open < maxSize) {
+                        slot.open++;
+                        return null;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new IllegalStateException(String.format(
+                            "No MQ connection available for %s within %d ms (pool size %d)", config, borrowTimeoutMs, maxSize));
+                    }
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted waiting for an MQ connection", e);
+                    }
+                }
+            }
+        } finally {
+            stale.forEach(PooledMQConnection::disconnect);
+        }
+    }
+    
+    /**
+     * Return a connection; broken or invalidated connections are disconnected instead of pooled
+     */
+    void release(PooledMQConnection connection) {
+        List<PooledMQConnection> stale = new ArrayList<>();
+        synchronized (this) {
+            Slot slot = slots.get(connection.getConfig());
+            if (closed || slot == null || connection.isInvalidated() || !connection.isHealthy()) {
+                if (slot != null) {
+                    slot.open--;
+                }
+                stale.add(connection);
+            } else {
+                connection.markIdle();
+                slot.idle.addFirst(connection);
+                evictExpired(slot, stale);
+            }
+            notifyAll();
+        }
+        stale.forEach(PooledMQConnection::disconnect);
+    }
+    
+    /**
+     * Close cached handles on a queue across idle connections, e.g. before an administrative
+     * clear that fails while the queue is open
+     */
+    public void closeQueueHandles(MQConnectionConfig config, String queueName) {
+        List<PooledMQConnection> idle;
+        synchronized (this) {
+            Slot slot = slots.get(config);
+            if (slot == null) {
+                return;
+            }
+            idle = new ArrayList<>(slot.idle);
+        }
+        for (PooledMQConnection connection : idle) {
+            connection.closeQueue(queueName);
+        }
+    }
+    
+    /**
+     * Disconnect every idle connection past the idle timeout
+     */
+    public void evictIdle() {
+        List<PooledMQConnection> stale = new ArrayList<>();
+        synchronized (this) {
+            for (Slot slot : slots.values()) {
+                evictExpired(slot, stale);
+            }
+            notifyAll();
+        }
+        stale.forEach(PooledMQConnection::disconnect);
+    }
+    
+    public synchronized int getIdleCount(MQConnectionConfig config) {
+        Slot slot = slots.get(config);
+        return slot == null ? 0 : slot.idle.size();
+    }
+    
+    public synchronized int getOpenCount(MQConnectionConfig config) {
+        Slot slot = slots.get(config);
+        return slot == null ? 0 : slot.open;
+    }
+    
+    /**
+     * Disconnect all idle connections; borrowed connections are disconnected when returned
+     */
+    @Override
+    public void close() {
+        List<PooledMQConnection> stale = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Slot slot : slots.values()) {
+                slot.open -= slot.idle.size();
+                stale.addAll(slot.idle);
+                slot.idle.clear();
+            }
+            notifyAll();
+        }
+        stale.forEach(PooledMQConnection::disconnect);
+    }
+    
+    private void evictExpired(Slot slot, List<PooledMQConnection> stale) {
+        long now = System.currentTimeMillis();
+        Iterator<PooledMQConnection> it = slot.idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledMQConnection connection = it.next();
+            if (now - connection.getIdleSince() < idleTimeoutMs) {
+                break;
+            }
+            it.remove();
+            slot.open--;
+            stale.add(connection);
+        }
+    }
+    
+    static Hashtable<String, Object> connectionProperties(MQConnectionConfig config) {
+        Hashtable<String, Object> props = new Hashtable<>();
+        props.put(MQConstants.HOST_NAME_PROPERTY, config.getHost());
+        props.put(MQConstants.PORT_PROPERTY, config.getPort());
+        props.put(MQConstants.CHANNEL_PROPERTY, config.getChannel());
+        props.put(MQConstants.TRANSPORT_PROPERTY, MQConstants.TRANSPORT_MQSERIES_CLIENT);
+        
+        if (config.getUsername() != null && !config.getUsername().isEmpty()) {
+            props.put(MQConstants.USER_ID_PROPERTY, config.getUsername());
+        }
+        if (config.getPassword() != null && !config.getPassword().isEmpty()) {
+            props.put(MQConstants.PASSWORD_PROPERTY, config.getPassword());
+            props.put(MQConstants.USE_MQCSP_AUTHENTICATION_PROPERTY, true);
+        }
+        return props;
+    }
+    
+    /**
+     * Connections for one configuration: idle ones most-recently-used first, plus the open count
+     * (idle and borrowed) checked against the maximum size
+     */
+    private static final class Slot {
+        private final Deque<PooledMQConnection> idle = new ArrayDeque<>();
+        private int open;
+    }
+}
\ No newline at end of file
@@ -3,11 +3,23 @@ package com.mq.test.util;
 import com.ibm.mq.*;
 import com.ibm.mq.constants.MQConstants;
 import com.mq.test.config.MQConnectionConfig;
+import com.mq.test.model.MQId;
 import com.mq.test.model.MQMessage;
+import com.mq.test.model.MessageProperties;
+import com.mq.test.model.QueueReadResult;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class to read messages from IBM MQ queues
@@ -26,74 +38,227 @@ public class MQMessageReader {
      */
     public static List<MQMessage> readMessages(MQConnectionConfig config, String queueName, 
                                                int maxMessages, boolean browse) throws Exception {
+        return readMessages(config, queueName, maxMessages, ReadOptions.of(browse));
+    }
+    
+    /**
+     * Reads messages from an IBM MQ queue, browsing or draining it, optionally in syncpoint batches
+     * 
+     * @param config MQ connection configuration
+     * @param queueName Name of the queue to read from
+     * @param maxMessages Maximum number of messages to read
+     * @param options Browse or destructive read, syncpoint batch size and read-ahead
+     * @return List of MQMessage objects
+     * @throws Exception if connection or read fails; under syncpoint, a failed batch
+     *                   is backed out onto the queue
+     */
+    public static List<MQMessage> readMessages(MQConnectionConfig config, String queueName,
+                                               int maxMessages, ReadOptions options) throws Exception {
+        return readMessages(MQConnectionPool.getDefault(), config, queueName, maxMessages, options);
+    }
+    
+    private static List<MQMessage> readMessages(MQConnectionPool pool, MQConnectionConfig config, String queueName,
+                                                int maxMessages, ReadOptions options) throws Exception {
         List<MQMessage> messages = new ArrayList<>();
-        MQQueueManager qMgr = null;
-        MQQueue queue = null;
+        try (MQMessageStream stream = openStream(pool, config, queueName, maxMessages, options, null)) {
+            while (stream.hasNext()) {
+                messages.add(stream.next());
+            }
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        
+        return messages;
+    }
+    
+    /**
+     * Reads several IBM MQ queues concurrently, each over its own connection and thread. The
+     * connections come from a pool dedicated to the call rather than the shared pool, so the number
+     * of queues is not limited by {@code mq.pool.max.size}.
+     * 
+     * @param config MQ connection configuration
+     * @param queueNames Names of the queues to read from
+     * @param maxMessages Maximum number of messages to read per queue
+     * @param browse If true, browse messages without removing them
+     * @return One result per queue, in the order of {@code queueNames}; failures are captured per queue
+     * @throws InterruptedException if interrupted while waiting for the readers
+     */
+    public static List<QueueReadResult> readQueues(MQConnectionConfig config, List<String> queueNames,
+                                                   int maxMessages, boolean browse) throws InterruptedException {
+        return readQueues(config, queueNames, maxMessages, ReadOptions.of(browse));
+    }
+    
+    /**
+     * Reads several IBM MQ queues concurrently with the given read options
+     * 
+     * @param config MQ connection configuration
+     * @param queueNames Names of the queues to read from
+     * @param maxMessages Maximum number of messages to read per queue
+     * @param options Browse or destructive read, syncpoint batch size and read-ahead
+     * @return One result per queue, in the order of {@code queueNames}; failures are captured per queue
+     * @throws InterruptedException if interrupted while waiting for the readers
+     */
+    public static List<QueueReadResult> readQueues(MQConnectionConfig config, List<String> queueNames,
+                                                   int maxMessages, ReadOptions options) throws InterruptedException {
+        if (queueNames.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Sized so no reader waits; connections are disconnected as soon as they are returned
+        MQConnectionPool pool = new MQConnectionPool(queueNames.size(), 0L, 0L);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(queueNames.size(), runnable -> {
+            Thread thread = new Thread(runnable, "mq-reader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
         
         try {
-            Hashtable<String, Object> props = new Hashtable<>();
-            props.put(MQConstants.HOST_NAME_PROPERTY, config.getHost());
-            props.put(MQConstants.PORT_PROPERTY, config.getPort());
-            props.put(MQConstants.CHANNEL_PROPERTY, config.getChannel());
-            props.put(MQConstants.USER_ID_PROPERTY, config.getUsername());
-            props.put(MQConstants.PASSWORD_PROPERTY, config.getPassword());
-            
-            qMgr = new MQQueueManager(config.getQueueManager(), props);
-            
-            int openOptions = browse ? 
-                MQConstants.MQOO_BROWSE | MQConstants.MQOO_INQUIRE :
-                MQConstants.MQOO_INPUT_AS_Q_DEF | MQConstants.MQOO_INQUIRE;
-            
-            queue = qMgr.accessQueue(queueName, openOptions);
-            
-            MQGetMessageOptions gmo = new MQGetMessageOptions();
-            gmo.options = browse ? 
-                MQConstants.MQGMO_BROWSE_FIRST | MQConstants.MQGMO_NO_WAIT :
-                MQConstants.MQGMO_NO_WAIT;
+            List<Future<QueueReadResult>> reads = new ArrayList<>();
+            for (String queueName : queueNames) {
+                reads.add(executor.submit(() -> timedRead(pool, config, queueName, maxMessages, options)));
+            }
             
-            for (int i = 0; i < maxMessages; i++) {
+            List<QueueReadResult> results = new ArrayList<>();
+            for (Future<QueueReadResult> read : reads) {
                 try {
-                    com.ibm.mq.MQMessage mqMsg = new com.ibm.mq.MQMessage();
-                    queue.get(mqMsg, gmo);
-                    
-                    if (browse && i > 0) {
-                        gmo.options = MQConstants.MQGMO_BROWSE_NEXT | MQConstants.MQGMO_NO_WAIT;
-                    }
-                    
-                    MQMessage msg = convertMQMessage(mqMsg);
-                    messages.add(msg);
-                } catch (MQException mqe) {
-                    if (mqe.reasonCode == MQConstants.MQRC_NO_MSG_AVAILABLE) {
-                        break;
+                    results.add(read.get());
+                } catch (ExecutionException e) {
+                    // timedRead captures its own failures; only an Error can get here
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
                     }
-                    throw mqe;
+                    throw new IllegalStateException("Queue reader failed", e.getCause());
                 }
             }
+            return results;
         } finally {
-            if (queue != null) {
-                try {
-                    queue.close();
-                } catch (Exception e) {
-                    // Log but don't throw
-                }
-            }
-            if (qMgr != null) {
-                try {
-                    qMgr.disconnect();
-                } catch (Exception e) {
-                    // Log but don't throw
-                }
-            }
+            executor.shutdownNow();
+            pool.close();
+        }
+    }
+    
+    private static QueueReadResult timedRead(MQConnectionPool pool, MQConnectionConfig config, String queueName,
+                                             int maxMessages, ReadOptions options) {
+        long start = System.nanoTime();
+        try {
+            List<MQMessage> messages = readMessages(pool, config, queueName, maxMessages, options);
+            return new QueueReadResult(queueName, messages, null, elapsedMs(start));
+        } catch (Exception e) {
+            return new QueueReadResult(queueName, null, e, elapsedMs(start));
+        }
+    }
+    
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Opens a lazy stream over an IBM MQ queue; messages are read one at a time as the stream is consumed
+     * 
+     * @param config MQ connection configuration
+     * @param queueName Name of the queue to read from
+     * @param maxMessages Maximum number of messages to read
+     * @param browse If true, browse messages without removing them
+     * @return Open stream over a pooled connection, which the caller must close
+     * @throws MQException if the connection or queue open fails
+     */
+    public static MQMessageStream openStream(MQConnectionConfig config, String queueName,
+                                             int maxMessages, boolean browse) throws MQException {
+        return openStream(config, queueName, maxMessages, ReadOptions.of(browse), null);
+    }
+    
+    /**
+     * Opens a lazy browse stream that continues after a previously read message, e.g. to resume from a checkpoint
+     * 
+     * @param config MQ connection configuration
+     * @param queueName Name of the queue to read from
+     * @param maxMessages Maximum number of messages to read
+     * @param browse If true, browse messages without removing them
+     * @param resumeAfterMessageId Hex ID of the last message already read, or {@code null} to start at the
+     *                             head of the queue; only used in browse mode
+     * @return Open stream over a pooled connection, which the caller must close
+     * @throws MQException if the connection or queue open fails
+     */
+    public static MQMessageStream openStream(MQConnectionConfig config, String queueName, int maxMessages,
+                                             boolean browse, String resumeAfterMessageId) throws MQException {
+        return openStream(config, queueName, maxMessages, ReadOptions.of(browse), resumeAfterMessageId);
+    }
+    
+    /**
+     * Opens a lazy stream with the given read options
+     * 
+     * @param config MQ connection configuration
+     * @param queueName Name of the queue to read from
+     * @param maxMessages Maximum number of messages to read
+     * @param options Browse or destructive read, syncpoint batch size and read-ahead
+     * @param resumeAfterMessageId Hex ID of the last message already read, or {@code null} to start at the
+     *                             head of the queue; only used in browse mode, and not with read-ahead
+     * @return Open stream over a pooled connection, which the caller must close
+     * @throws MQException if the connection or queue open fails
+     * @throws IllegalArgumentException if a browse with read-ahead is asked to resume
+     */
+    public static MQMessageStream openStream(MQConnectionConfig config, String queueName, int maxMessages,
+                                             ReadOptions options, String resumeAfterMessageId) throws MQException {
+        return openStream(MQConnectionPool.getDefault(), config, queueName, maxMessages, options, resumeAfterMessageId);
+    }
+    
+    private static MQMessageStream openStream(MQConnectionPool pool, MQConnectionConfig config, String queueName,
+                                              int maxMessages, ReadOptions options,
+                                              String resumeAfterMessageId) throws MQException {
+        if (resumeAfterMessageId != null && options.isBrowse() && options.isReadAhead()) {
+            // Positioning selects by message ID, which MQ does not allow on a read-ahead handle
+            throw new IllegalArgumentException("Cannot resume a browse of " + queueName + " with read-ahead");
         }
+        PooledMQConnection connection = pool.borrow(config);
         
-        return messages;
+        int openOptions = options.isBrowse() ? 
+            MQConstants.MQOO_BROWSE | MQConstants.MQOO_INQUIRE :
+            MQConstants.MQOO_INPUT_AS_Q_DEF | MQConstants.MQOO_INQUIRE;
+        if (options.isReadAhead()) {
+            openOptions |= MQConstants.MQOO_READ_AHEAD;
+        }
+        
+        try {
+            MQQueue queue = connection.accessQueue(queueName, openOptions);
+            return new MQMessageStream(connection, queue, queueName, maxMessages, options,
+                resumeAfterMessageId == null ? null : hexToBytes(resumeAfterMessageId));
+        } catch (MQException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Streams a queue into a snapshot file for offline comparison, holding one message in memory at a time
+     * 
+     * @param config MQ connection configuration
+     * @param queueName Name of the queue to read from
+     * @param maxMessages Maximum number of messages to read
+     * @param browse If true, browse messages without removing them
+     * @param snapshot Snapshot file to create
+     * @return Number of messages written
+     * @throws Exception if connection, read or write fails
+     */
+    public static int exportSnapshot(MQConnectionConfig config, String queueName, int maxMessages,
+                                     boolean browse, Path snapshot) throws Exception {
+        try (MQMessageStream stream = openStream(config, queueName, maxMessages, browse)) {
+            return SnapshotWriter.write(snapshot, stream);
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
     }
     
-    private static MQMessage convertMQMessage(com.ibm.mq.MQMessage mqMsg) throws Exception {
+    static MQMessage convertMQMessage(com.ibm.mq.MQMessage mqMsg) throws Exception {
         MQMessage msg = new MQMessage();
         
-        msg.setMessageId(bytesToHex(mqMsg.messageId));
-        msg.setCorrelationId(bytesToHex(mqMsg.correlationId));
+        msg.setMessageId(MQId.of(mqMsg.messageId));
+        msg.setCorrelationId(MQId.of(mqMsg.correlationId));
         msg.setPriority(mqMsg.priority);
         msg.setFormat(mqMsg.format);
         msg.setTimestamp(mqMsg.putDateTime.getTimeInMillis());
@@ -101,16 +266,58 @@ public class MQMessageReader {
         int dataLength = mqMsg.getDataLength();
         byte[] buffer = new byte[dataLength];
         mqMsg.readFully(buffer);
-        msg.setPayload(new String(buffer, "UTF-8"));
+        msg.setPayloadBytes(buffer, mqMsg.characterSet);
+        msg.setProperties(readProperties(mqMsg));
         
         return msg;
     }
     
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02X", b));
+    /**
+     * All properties returned in the message handle (requires MQGMO_PROPERTIES_IN_HANDLE), sorted by name
+     */
+    private static MessageProperties readProperties(com.ibm.mq.MQMessage mqMsg) throws MQException {
+        Enumeration<String> names = mqMsg.getPropertyNames("%");
+        if (!names.hasMoreElements()) {
+            return MessageProperties.EMPTY;
+        }
+        Map<String, Object> properties = new HashMap<>();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            properties.put(name, mqMsg.getObjectProperty(name));
+        }
+        return MessageProperties.of(properties);
+    }
+    
+    static String bytesToHex(byte[] bytes) {
+        return MQId.toHex(bytes);
+    }
+    
+    /**
+     * Binary form of a message or correlation ID for the snapshot and columnar stores, which keep
+     * exactly 24 bytes per ID
+     *
+     * @throws IllegalArgumentException if the ID is missing or was set as text that is not 48 hex digits
+     */
+    static MQId requireId(MQId value, String text, String name) {
+        if (value != null) {
+            return value;
+        }
+        if (text == null) {
+            throw new IllegalArgumentException(name + " is missing");
+        }
+        throw new IllegalArgumentException(name + " is not " + 2 * MQId.LENGTH + " hex digits: " + text);
+    }
+    
+    static byte[] hexToBytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new NumberFormatException("Not a hex string: " + hex);
+            }
+            bytes[i] = (byte) (high << 4 | low);
         }
-        return sb.toString();
+        return bytes;
     }
 }
\ No newline at end of file
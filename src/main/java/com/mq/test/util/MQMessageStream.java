@@ -0,0 +1,285 @@
+package com.mq.test.util;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.MQGetMessageOptions;
+import com.ibm.mq.MQQueue;
+import com.ibm.mq.constants.MQConstants;
+import com.mq.test.model.MQMessage;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily reads messages from an open IBM MQ queue, one GET per {@link #next()}, so a queue of any
+ * depth can be walked while holding only the current message in memory.
+ *
+ * <p>Destructive reads with a batch size run under syncpoint: the GETs are committed every batch and
+ * when the queue or {@code maxMessages} is exhausted, and backed out if a GET fails, so an interrupted
+ * run leaves the uncommitted messages on the queue. Closing a stream that was not read to the end backs
+ * out the current batch; call {@link #commit()} first to keep it.
+ *
+ * <p>With a buffer size, one MQ message and its buffer are reused for every GET. A message larger than
+ * the buffer is fetched again into a buffer grown to fit it: browsed truncated and re-read under the
+ * browse cursor, or left on the queue by the failed destructive GET and got again.
+ *
+ * <p>The stream holds a pooled connection for its lifetime; always close it, preferably with
+ * try-with-resources, to return the connection to the pool. Read failures after opening are rethrown as {@link IllegalStateException}
+ * wrapping the original {@link MQException}.
+ */
+public class MQMessageStream implements Iterator<MQMessage>, AutoCloseable {
+    
+    /** Message properties are returned in the message handle rather than as an MQRFH2 header in the body */
+    private static final int GET_OPTIONS = MQConstants.MQGMO_NO_WAIT | MQConstants.MQGMO_PROPERTIES_IN_HANDLE;
+    
+    private final PooledMQConnection connection;
+    private final MQQueue queue;
+    private final String queueName;
+    private final int maxMessages;
+    private final boolean browse;
+    private final int batchSize;
+    private final MQGetMessageOptions gmo;
+    private final int nextOptions;
+    private final int retryOptions;
+    private final com.ibm.mq.MQMessage reusable;
+    private int bufferSize;
+    private byte[] resumeAfter;
+    
+    private MQMessage nextMessage;
+    private int readCount;
+    private int uncommitted;
+    private boolean exhausted;
+    
+    MQMessageStream(PooledMQConnection connection, MQQueue queue, String queueName, int maxMessages, boolean browse) {
+        this(connection, queue, queueName, maxMessages, ReadOptions.of(browse), null);
+    }
+    
+    /**
+     * @param resumeAfter In browse mode, ID of a message to position the browse cursor on; the stream
+     *                    starts with the message after it. Ignored for destructive reads.
+     */
+    MQMessageStream(PooledMQConnection connection, MQQueue queue, String queueName, int maxMessages,
+                    ReadOptions options, byte[] resumeAfter) {
+        this.connection = connection;
+        this.queue = queue;
+        this.queueName = queueName;
+        this.maxMessages = maxMessages;
+        this.browse = options.isBrowse();
+        this.batchSize = options.isSyncpoint() ? options.getBatchSize() : 0;
+        this.bufferSize = options.getBufferSize();
+        this.reusable = bufferSize > 0 ? new com.ibm.mq.MQMessage() : null;
+        this.gmo = new MQGetMessageOptions();
+        if (reusable != null) {
+            // The reused message keeps the IDs of the previous GET; they must not be matched
+            this.gmo.matchOptions = MQConstants.MQMO_NONE;
+        }
+        this.gmo.options = firstGetOptions(options);
+        this.nextOptions = nextGetOptions(options);
+        this.retryOptions = retryGetOptions(options);
+        this.resumeAfter = browse ? resumeAfter : null;
+    }
+    
+    /**
+     * Get options of the first GET of a stream
+     */
+    static int firstGetOptions(ReadOptions options) {
+        int base = baseGetOptions(options);
+        return options.isBrowse() ? MQConstants.MQGMO_BROWSE_FIRST | base : base;
+    }
+    
+    /**
+     * Get options of every GET after the first
+     */
+    static int nextGetOptions(ReadOptions options) {
+        int base = baseGetOptions(options);
+        return options.isBrowse() ? MQConstants.MQGMO_BROWSE_NEXT | base : base;
+    }
+    
+    /**
+     * Get options of the GET that re-reads a message too large for the reused buffer
+     */
+    static int retryGetOptions(ReadOptions options) {
+        int base = baseGetOptions(options);
+        return options.isBrowse() ? MQConstants.MQGMO_BROWSE_MSG_UNDER_CURSOR | base : base;
+    }
+    
+    private static int baseGetOptions(ReadOptions options) {
+        int base = GET_OPTIONS;
+        if (options.isBrowse() && options.getBufferSize() > 0) {
+            // A truncated destructive GET would discard the rest of the message, so only browses accept truncation
+            base |= MQConstants.MQGMO_ACCEPT_TRUNCATED_MSG;
+        }
+        if (options.isSyncpoint()) {
+            base |= MQConstants.MQGMO_SYNCPOINT;
+        }
+        return base;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (nextMessage == null && !exhausted) {
+            nextMessage = fetch();
+        }
+        return nextMessage != null;
+    }
+    
+    @Override
+    public MQMessage next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more messages on " + queueName);
+        }
+        MQMessage message = nextMessage;
+        nextMessage = null;
+        return message;
+    }
+    
+    /**
+     * Number of messages read from the queue so far
+     */
+    public int getReadCount() {
+        return readCount;
+    }
+    
+    public String getQueueName() {
+        return queueName;
+    }
+    
+    /**
+     * Commit the destructive GETs of the current batch
+     *
+     * @throws IllegalStateException wrapping the {@link MQException} if the commit fails; the queue manager
+     *                               then backs the batch out
+     */
+    public void commit() {
+        if (uncommitted == 0) {
+            return;
+        }
+        try {
+            connection.commit();
+            uncommitted = 0;
+        } catch (MQException mqe) {
+            uncommitted = 0;
+            throw new IllegalStateException("Failed to commit messages read from queue " + queueName, mqe);
+        }
+    }
+    
+    /**
+     * Put the messages of the current batch back on the queue
+     */
+    private void backout() {
+        if (uncommitted == 0) {
+            return;
+        }
+        uncommitted = 0;
+        try {
+            connection.backout();
+        } catch (MQException mqe) {
+            // Uncommitted GETs are backed out when the connection ends
+            connection.invalidate();
+        }
+    }
+    
+    private MQMessage fetch() {
+        if (readCount >= maxMessages) {
+            commit();
+            exhausted = true;
+            return null;
+        }
+        if (batchSize > 0 && uncommitted >= batchSize) {
+            commit();
+        }
+        if (resumeAfter != null) {
+            byte[] messageId = resumeAfter;
+            resumeAfter = null;
+            positionAfter(messageId);
+        }
+        try {
+            com.ibm.mq.MQMessage mqMsg = receive();
+            gmo.options = nextOptions;
+            readCount++;
+            if (batchSize > 0) {
+                uncommitted++;
+            }
+            return MQMessageReader.convertMQMessage(mqMsg);
+        } catch (MQException mqe) {
+            if (mqe.reasonCode == MQConstants.MQRC_NO_MSG_AVAILABLE) {
+                commit();
+                exhausted = true;
+                return null;
+            }
+            connection.checkFailure(mqe);
+            backout();
+            throw new IllegalStateException("Failed to read from queue " + queueName, mqe);
+        } catch (Exception e) {
+            backout();
+            throw new IllegalStateException("Failed to read from queue " + queueName, e);
+        }
+    }
+    
+    /**
+     * GET the next message, into the reused message when there is one, growing its buffer until the
+     * message fits
+     */
+    private com.ibm.mq.MQMessage receive() throws MQException, IOException {
+        if (reusable == null) {
+            com.ibm.mq.MQMessage mqMsg = new com.ibm.mq.MQMessage();
+            queue.get(mqMsg, gmo);
+            return mqMsg;
+        }
+        while (true) {
+            reusable.clearMessage();
+            try {
+                queue.get(reusable, gmo, bufferSize);
+                return reusable;
+            } catch (MQException mqe) {
+                if (mqe.reasonCode != MQConstants.MQRC_TRUNCATED_MSG_ACCEPTED
+                        && mqe.reasonCode != MQConstants.MQRC_TRUNCATED_MSG_FAILED) {
+                    throw mqe;
+                }
+                int length = reusable.getTotalMessageLength();
+                bufferSize = length > bufferSize ? length : bufferSize * 2;
+                gmo.options = retryOptions;
+            }
+        }
+    }
+    
+    /**
+     * Browse the message with the given ID to move the cursor onto it, so the next BROWSE_NEXT returns
+     * the message after it
+     */
+    private void positionAfter(byte[] messageId) {
+        com.ibm.mq.MQMessage marker = new com.ibm.mq.MQMessage();
+        marker.messageId = messageId;
+        MQGetMessageOptions position = new MQGetMessageOptions();
+        position.options = MQConstants.MQGMO_BROWSE_FIRST | MQConstants.MQGMO_NO_WAIT
+            | MQConstants.MQGMO_ACCEPT_TRUNCATED_MSG;
+        position.matchOptions = MQConstants.MQMO_MATCH_MSG_ID;
+        try {
+            queue.get(marker, position, 0);
+        } catch (MQException mqe) {
+            if (mqe.reasonCode == MQConstants.MQRC_NO_MSG_AVAILABLE) {
+                throw new IllegalStateException(String.format("Cannot resume %s: message %s is no longer on the queue",
+                    queueName, MQMessageReader.bytesToHex(messageId)), mqe);
+            }
+            if (mqe.reasonCode != MQConstants.MQRC_TRUNCATED_MSG_ACCEPTED) {
+                connection.checkFailure(mqe);
+                throw new IllegalStateException("Failed to read from queue " + queueName, mqe);
+            }
+        }
+        gmo.options = nextOptions;
+    }
+    
+    /**
+     * Back out any uncommitted batch and return the connection to the pool
+     */
+    @Override
+    public void close() {
+        exhausted = true;
+        nextMessage = null;
+        try {
+            backout();
+        } finally {
+            connection.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.mq.test.util;
+
+import com.mq.test.model.CcsidCharsets;
+import com.mq.test.model.MQId;
+import com.mq.test.model.MQMessage;
+import com.mq.test.model.MessageProperties;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Columnar, mostly off-heap representation of a queue for comparing millions of messages without
+ * millions of {@link MQMessage} objects. Timestamps, priorities and CCSIDs are primitive arrays, formats
+ * are dictionary-encoded, message and correlation IDs are kept as their 24 MQ bytes and payloads are
+ * copied into direct buffers outside the Java heap. Payload chunks start small and double up to 64 MB, so
+ * small queues do not reserve a full chunk. Properties are only kept for messages that have any.
+ *
+ * <p>Columns are filled with {@link #add(MQMessage)} and are not thread-safe while being filled; once
+ * complete they may be read concurrently.
+ */
+public class MessageColumns implements AutoCloseable {
+    
+    private static final int ID_LENGTH = 24;
+    private static final int MIN_ARENA_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_ARENA_CHUNK_SIZE = 64 * 1024 * 1024;
+    
+    private int size;
+    private byte[] messageIds;
+    private byte[] correlationIds;
+    private long[] timestamps;
+    private int[] priorities;
+    private int[] formatCodes;
+    private int[] characterSets;
+    private int[] payloadChunks;
+    private int[] payloadOffsets;
+    private int[] payloadLengths;
+    // Position in properties plus one; 0 for messages without properties
+    private int[] propertySlots;
+    private final List<Map<String, Object>> properties = new ArrayList<>();
+    
+    private final List<String> formats = new ArrayList<>();
+    private final Map<String, Integer> formatCodeMap = new HashMap<>();
+    private final List<ByteBuffer> arena = new ArrayList<>();
+    
+    public MessageColumns() {
+        this(1024);
+    }
+    
+    public MessageColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        messageIds = new byte[capacity * ID_LENGTH];
+        correlationIds = new byte[capacity * ID_LENGTH];
+        timestamps = new long[capacity];
+        priorities = new int[capacity];
+        formatCodes = new int[capacity];
+        characterSets = new int[capacity];
+        payloadChunks = new int[capacity];
+        payloadOffsets = new int[capacity];
+        payloadLengths = new int[capacity];
+        propertySlots = new int[capacity];
+    }
+    
+    /**
+     * Columns holding every message of a stream or list
+     */
+    public static MessageColumns of(Iterator<MQMessage> messages) {
+        MessageColumns columns = new MessageColumns();
+        while (messages.hasNext()) {
+            columns.add(messages.next());
+        }
+        return columns;
+    }
+    
+    /**
+     * Append one message; the payload bytes are copied off-heap
+     *
+     * @throws IllegalArgumentException if an ID is missing or not 48 hex digits; nothing is added
+     */
+    public void add(MQMessage message) {
+        MQId messageId = MQMessageReader.requireId(message.getMessageIdValue(), message.getMessageId(), "Message ID");
+        MQId correlationId = MQMessageReader.requireId(
+            message.getCorrelationIdValue(), message.getCorrelationId(), "Correlation ID");
+        if (size == timestamps.length) {
+            grow();
+        }
+        messageId.copyTo(messageIds, size * ID_LENGTH);
+        correlationId.copyTo(correlationIds, size * ID_LENGTH);
+        timestamps[size] = message.getTimestamp();
+        priorities[size] = message.getPriority();
+        formatCodes[size] = formatCodeMap.computeIfAbsent(message.getFormat(), format -> {
+            formats.add(format);
+            return formats.size() - 1;
+        });
+        characterSets[size] = message.getCharacterSet();
+        putPayload(size, message.getPayloadBytes());
+        if (message.getProperties() != null && !message.getProperties().isEmpty()) {
+            properties.add(MessageProperties.of(message.getProperties()));
+            propertySlots[size] = properties.size();
+        }
+        size++;
+    }
+    
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        messageIds = Arrays.copyOf(messageIds, capacity * ID_LENGTH);
+        correlationIds = Arrays.copyOf(correlationIds, capacity * ID_LENGTH);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        formatCodes = Arrays.copyOf(formatCodes, capacity);
+        characterSets = Arrays.copyOf(characterSets, capacity);
+        payloadChunks = Arrays.copyOf(payloadChunks, capacity);
+        payloadOffsets = Arrays.copyOf(payloadOffsets, capacity);
+        payloadLengths = Arrays.copyOf(payloadLengths, capacity);
+        propertySlots = Arrays.copyOf(propertySlots, capacity);
+    }
+    
+    private void putPayload(int index, byte[] payload) {
+        int length = payload == null ? 0 : payload.length;
+        ByteBuffer chunk = arena.isEmpty() ? null : arena.get(arena.size() - 1);
+        if (chunk == null || chunk.remaining() < length) {
+            int chunkSize = chunk == null ? MIN_ARENA_CHUNK_SIZE
+                : (int) Math.min((long) chunk.capacity() * 2, MAX_ARENA_CHUNK_SIZE);
+            chunk = ByteBuffer.allocateDirect(Math.max(chunkSize, length));
+            arena.add(chunk);
+        }
+        payloadChunks[index] = arena.size() - 1;
+        payloadOffsets[index] = chunk.position();
+        payloadLengths[index] = length;
+        if (length > 0) {
+            chunk.put(payload);
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public MQId getMessageId(int index) {
+        return MQId.of(messageIds, index * ID_LENGTH);
+    }
+    
+    public MQId getCorrelationId(int index) {
+        return MQId.of(correlationIds, index * ID_LENGTH);
+    }
+    
+    /**
+     * Whether the message at {@code index} has the same message ID as the message at {@code otherIndex}
+     * of {@code other}, compared as bytes
+     */
+    public boolean sameMessageId(int index, MessageColumns other, int otherIndex) {
+        return Arrays.equals(messageIds, index * ID_LENGTH, (index + 1) * ID_LENGTH,
+            other.messageIds, otherIndex * ID_LENGTH, (otherIndex + 1) * ID_LENGTH);
+    }
+    
+    /**
+     * Correlation ID counterpart of {@link #sameMessageId}
+     */
+    public boolean sameCorrelationId(int index, MessageColumns other, int otherIndex) {
+        return Arrays.equals(correlationIds, index * ID_LENGTH, (index + 1) * ID_LENGTH,
+            other.correlationIds, otherIndex * ID_LENGTH, (otherIndex + 1) * ID_LENGTH);
+    }
+    
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+    
+    public int getPriority(int index) {
+        return priorities[index];
+    }
+    
+    /**
+     * Dictionary code of the message format; codes index {@link #getFormats()}
+     */
+    public int getFormatCode(int index) {
+        return formatCodes[index];
+    }
+    
+    public String getFormat(int index) {
+        return formats.get(formatCodes[index]);
+    }
+    
+    /**
+     * Format dictionary in code order
+     */
+    public List<String> getFormats() {
+        return Collections.unmodifiableList(formats);
+    }
+    
+    /**
+     * Code of a format in this dictionary, or -1 if no message has it
+     */
+    public int findFormatCode(String format) {
+        Integer code = formatCodeMap.get(format);
+        return code == null ? -1 : code;
+    }
+    
+    public int getCharacterSet(int index) {
+        return characterSets[index];
+    }
+    
+    public int getPayloadLength(int index) {
+        return payloadLengths[index];
+    }
+    
+    /**
+     * Read-only view of the off-heap payload
+     */
+    public ByteBuffer getPayload(int index) {
+        ByteBuffer payload = arena.get(payloadChunks[index]).asReadOnlyBuffer();
+        payload.limit(payloadOffsets[index] + payloadLengths[index]).position(payloadOffsets[index]);
+        return payload.slice();
+    }
+    
+    /**
+     * Payload decoded with the message CCSID
+     */
+    public String getPayloadText(int index) {
+        return CcsidCharsets.forCcsid(characterSets[index]).decode(getPayload(index)).toString();
+    }
+    
+    /**
+     * Properties of the message; an empty map if it has none
+     */
+    public Map<String, Object> getProperties(int index) {
+        int slot = propertySlots[index];
+        return slot == 0 ? new HashMap<>() : properties.get(slot - 1);
+    }
+    
+    /**
+     * Rebuild the message at the given position on the heap, e.g. to report a mismatch
+     */
+    public MQMessage toMessage(int index) {
+        MQMessage msg = new MQMessage();
+        msg.setMessageId(getMessageId(index));
+        msg.setCorrelationId(getCorrelationId(index));
+        msg.setTimestamp(timestamps[index]);
+        msg.setPriority(priorities[index]);
+        msg.setFormat(getFormat(index));
+        byte[] payload = new byte[payloadLengths[index]];
+        getPayload(index).get(payload);
+        msg.setPayloadBytes(payload, characterSets[index]);
+        msg.setProperties(getProperties(index));
+        return msg;
+    }
+    
+    /**
+     * Read-only list view rebuilding each message on access; nothing is cached
+     */
+    public List<MQMessage> asList() {
+        return new ColumnList();
+    }
+    
+    /**
+     * Direct buffers are freed by the garbage collector; this only drops the references to them
+     */
+    @Override
+    public void close() {
+        arena.clear();
+        properties.clear();
+        Arrays.fill(propertySlots, 0);
+        size = 0;
+    }
+    
+    private final class ColumnList extends AbstractList<MQMessage> implements RandomAccess {
+        @Override
+        public MQMessage get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return toMessage(index);
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package com.mq.test.util;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.MQQueue;
+import com.ibm.mq.MQQueueManager;
+import com.ibm.mq.constants.MQConstants;
+import com.mq.test.config.MQConnectionConfig;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Queue manager connection borrowed from an {@link MQConnectionPool}. Queue handles opened through
+ * {@link #accessQueue} stay open for the life of the connection and are shared by later borrowers.
+ * Closing the connection returns it to the pool; call {@link #invalidate()} first if it failed.
+ *
+ * <p>A borrowed connection must only be used by one thread at a time.
+ */
+public class PooledMQConnection implements AutoCloseable {
+    
+    private final MQConnectionPool pool;
+    private final MQConnectionConfig config;
+    private final MQQueueManager qMgr;
+    private final Map<String, MQQueue> queues = new HashMap<>();
+    private boolean borrowed;
+    private boolean invalidated;
+    private long idleSince;
+    
+    PooledMQConnection(MQConnectionPool pool, MQConnectionConfig config, MQQueueManager qMgr) {
+        this.pool = pool;
+        this.config = config;
+        this.qMgr = qMgr;
+    }
+    
+    public MQQueueManager getQueueManager() {
+        return qMgr;
+    }
+    
+    public MQConnectionConfig getConfig() {
+        return config;
+    }
+    
+    /**
+     * Open a queue, or reuse the handle already opened on this connection with the same options
+     */
+    public synchronized MQQueue accessQueue(String queueName, int openOptions) throws MQException {
+        String key = queueName + "|" + openOptions;
+        MQQueue queue = queues.get(key);
+        if (queue != null && queue.isOpen()) {
+            return queue;
+        }
+        try {
+            queue = qMgr.accessQueue(queueName, openOptions);
+        } catch (MQException mqe) {
+            if (isConnectionFailure(mqe)) {
+                invalidate();
+            }
+            throw mqe;
+        }
+        queues.put(key, queue);
+        return queue;
+    }
+    
+    /**
+     * Close every cached handle on the given queue
+     */
+    public synchronized void closeQueue(String queueName) {
+        String prefix = queueName + "|";
+        Iterator<Map.Entry<String, MQQueue>> it = queues.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, MQQueue> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                closeQuietly(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+    
+    /**
+     * Commit the unit of work of this connection, e.g. a batch of destructive GETs under syncpoint
+     */
+    public synchronized void commit() throws MQException {
+        try {
+            qMgr.commit();
+        } catch (MQException mqe) {
+            checkFailure(mqe);
+            throw mqe;
+        }
+    }
+    
+    /**
+     * Back out the unit of work of this connection
+     */
+    public synchronized void backout() throws MQException {
+        try {
+            qMgr.backout();
+        } catch (MQException mqe) {
+            checkFailure(mqe);
+            throw mqe;
+        }
+    }
+    
+    /**
+     * Mark the connection as unusable so it is disconnected rather than returned to the pool
+     */
+    public synchronized void invalidate() {
+        invalidated = true;
+    }
+    
+    /**
+     * Invalidate the connection if the exception indicates the connection itself failed
+     */
+    public void checkFailure(MQException mqe) {
+        if (isConnectionFailure(mqe)) {
+            invalidate();
+        }
+    }
+    
+    synchronized boolean isInvalidated() {
+        return invalidated;
+    }
+    
+    /**
+     * Client-side check only: {@code isConnected()} stays true after the channel drops until the
+     * next MQ call fails, so use {@link #ping()} before reusing an idle connection
+     */
+    synchronized boolean isHealthy() {
+        return !invalidated && qMgr.isConnected();
+    }
+    
+    /**
+     * Inquire the queue manager command level to prove the channel still works. Only connection
+     * failures count; any other reason code still means the queue manager answered.
+     */
+    synchronized boolean ping() {
+        try {
+            qMgr.inquire(new int[] { MQConstants.MQIA_COMMAND_LEVEL }, new int[1], new byte[0]);
+            return true;
+        } catch (MQException mqe) {
+            checkFailure(mqe);
+            return !invalidated;
+        }
+    }
+    
+    synchronized void markBorrowed() {
+        borrowed = true;
+    }
+    
+    synchronized void markIdle() {
+        borrowed = false;
+        idleSince = System.currentTimeMillis();
+    }
+    
+    synchronized long getIdleSince() {
+        return idleSince;
+    }
+    
+    /**
+     * Return the connection to its pool
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!borrowed) {
+                return;
+            }
+            borrowed = false;
+        }
+        pool.release(this);
+    }
+    
+    synchronized void disconnect() {
+        for (MQQueue queue : queues.values()) {
+            closeQuietly(queue);
+        }
+        queues.clear();
+        try {
+            qMgr.disconnect();
+        } catch (Exception e) {
+            // Log but don't throw
+        }
+    }
+    
+    private static void closeQuietly(MQQueue queue) {
+        try {
+            queue.close();
+        } catch (Exception e) {
+            // Log but don't throw
+        }
+    }
+    
+    private static boolean isConnectionFailure(MQException mqe) {
+        switch (mqe.reasonCode) {
+            case MQConstants.MQRC_CONNECTION_BROKEN:
+            case MQConstants.MQRC_Q_MGR_NOT_AVAILABLE:
+            case MQConstants.MQRC_Q_MGR_QUIESCING:
+            case MQConstants.MQRC_Q_MGR_STOPPING:
+            case MQConstants.MQRC_CONNECTION_QUIESCING:
+            case MQConstants.MQRC_CONNECTION_STOPPING:
+            case MQConstants.MQRC_HCONN_ERROR:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.mq.test.util;
+
+/**
+ * How a queue is read: browsed, or drained with destructive GETs, optionally committed in syncpoint batches
+ */
+public class ReadOptions {
+    
+    /** Suggested number of destructive GETs per syncpoint batch */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    
+    /** Initial GET buffer of {@link #highThroughputBrowse()}; it grows to the largest message seen */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    
+    private final boolean browse;
+    private final int batchSize;
+    private final boolean readAhead;
+    private final int bufferSize;
+    
+    public ReadOptions(boolean browse, int batchSize, boolean readAhead) {
+        this(browse, batchSize, readAhead, 0);
+    }
+    
+    /**
+     * @param browse If true, browse messages without removing them
+     * @param batchSize Destructive GETs per syncpoint commit; 0 gets each message outside syncpoint
+     * @param readAhead Open the queue with MQOO_READ_AHEAD so the queue manager streams messages
+     *                  to the client ahead of each GET (client connections only). Not allowed with
+     *                  syncpoint batches: read-ahead messages are taken outside the unit of work, so a
+     *                  backout could not return them to the queue.
+     * @param bufferSize Initial size of one GET buffer reused for every message; 0 allocates a new MQ
+     *                   message per GET and lets the MQ classes size it. Not allowed with read-ahead in
+     *                   browse mode: a message larger than the buffer is re-read under the cursor with
+     *                   different get options, which MQ rejects on a read-ahead handle.
+     */
+    public ReadOptions(boolean browse, int batchSize, boolean readAhead, int bufferSize) {
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("Batch size must not be negative: " + batchSize);
+        }
+        if (bufferSize < 0) {
+            throw new IllegalArgumentException("Buffer size must not be negative: " + bufferSize);
+        }
+        if (readAhead && !browse && batchSize > 0) {
+            throw new IllegalArgumentException("Read-ahead cannot be combined with syncpoint batches");
+        }
+        if (readAhead && browse && bufferSize > 0) {
+            throw new IllegalArgumentException("Read-ahead cannot be combined with a reused browse buffer");
+        }
+        this.browse = browse;
+        this.batchSize = batchSize;
+        this.readAhead = readAhead;
+        this.bufferSize = bufferSize;
+    }
+    
+    /**
+     * Browse, or drain with plain GETs outside syncpoint, without read-ahead
+     */
+    public static ReadOptions of(boolean browse) {
+        return new ReadOptions(browse, 0, false);
+    }
+    
+    /**
+     * Browse into a reused buffer of {@link #DEFAULT_BUFFER_SIZE}, without read-ahead
+     */
+    public static ReadOptions highThroughputBrowse() {
+        return new ReadOptions(true, 0, false, DEFAULT_BUFFER_SIZE);
+    }
+    
+    public boolean isBrowse() {
+        return browse;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * Whether destructive GETs run under syncpoint
+     */
+    public boolean isSyncpoint() {
+        return !browse && batchSize > 0;
+    }
+    
+    public boolean isReadAhead() {
+        return readAhead;
+    }
+    
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
\ No newline at end of file
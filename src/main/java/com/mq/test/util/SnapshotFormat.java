@@ -0,0 +1,159 @@
+package com.mq.test.util;
+
+import com.mq.test.model.MessageProperties;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Layout of a queue snapshot file. All numbers are big-endian.
+ *
+ * <pre>
+ * header   magic "MQSNAP01" (8), reserved int (4)
+ * record   length int (4, bytes after this field)
+ *          messageId (24), correlationId (24), putTimestamp long (8), priority int (4),
+ *          format (8, ASCII space-padded), ccsid int (4), payloadLength int (4), propertiesLength int (4)
+ *          payload (payloadLength), properties (propertiesLength)
+ * index    record offset long (8) per record
+ * trailer  index offset long (8), record count int (4), magic "MQIX" (4)
+ * </pre>
+ *
+ * Records are appended as they are written; the index and trailer are added on close. A file without a
+ * trailer (writer interrupted) is still readable by scanning the records.
+ */
+final class SnapshotFormat {
+    
+    static final byte[] MAGIC = "MQSNAP01".getBytes(StandardCharsets.US_ASCII);
+    static final int INDEX_MAGIC = 0x4D514958; // "MQIX"
+    static final int HEADER_SIZE = 12;
+    static final int TRAILER_SIZE = 16;
+    
+    static final int ID_LENGTH = 24;
+    static final int FORMAT_LENGTH = 8;
+    
+    // Offsets within a record, counted from the length field
+    static final int MESSAGE_ID = 4;
+    static final int CORRELATION_ID = MESSAGE_ID + ID_LENGTH;
+    static final int TIMESTAMP = CORRELATION_ID + ID_LENGTH;
+    static final int PRIORITY = TIMESTAMP + 8;
+    static final int FORMAT = PRIORITY + 4;
+    static final int CCSID = FORMAT + FORMAT_LENGTH;
+    static final int PAYLOAD_LENGTH = CCSID + 4;
+    static final int PROPERTIES_LENGTH = PAYLOAD_LENGTH + 4;
+    static final int PAYLOAD = PROPERTIES_LENGTH + 4;
+    
+    private static final byte TYPE_STRING = 'S';
+    private static final byte TYPE_INT = 'I';
+    private static final byte TYPE_LONG = 'J';
+    private static final byte TYPE_SHORT = 'H';
+    private static final byte TYPE_BYTE = 'B';
+    private static final byte TYPE_BOOLEAN = 'Z';
+    private static final byte TYPE_DOUBLE = 'D';
+    private static final byte TYPE_FLOAT = 'F';
+    private static final byte TYPE_BYTES = 'A';
+    
+    private SnapshotFormat() {}
+    
+    /**
+     * Encode message properties in name order, so equal properties always encode to equal bytes; values
+     * of types MQ properties cannot hold are stored as strings
+     */
+    static byte[] encodeProperties(Map<String, Object> unsorted) {
+        if (unsorted == null || unsorted.isEmpty()) {
+            return new byte[0];
+        }
+        MessageProperties properties = MessageProperties.of(unsorted);
+        byte[][] names = new byte[properties.size()][];
+        int size = 4;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = properties.name(i).getBytes(StandardCharsets.UTF_8);
+            size += 4 + names[i].length + 1 + valueSize(properties.value(i));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            buffer.putInt(names[i].length).put(names[i]);
+            putValue(buffer, properties.value(i));
+        }
+        return buffer.array();
+    }
+    
+    static MessageProperties decodeProperties(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return MessageProperties.EMPTY;
+        }
+        Map<String, Object> properties = new HashMap<>();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            String name = getString(buffer);
+            properties.put(name, getValue(buffer));
+        }
+        return MessageProperties.of(properties);
+    }
+    
+    private static int valueSize(Object value) {
+        if (value instanceof Integer || value instanceof Float) {
+            return 4;
+        } else if (value instanceof Long || value instanceof Double) {
+            return 8;
+        } else if (value instanceof Short) {
+            return 2;
+        } else if (value instanceof Byte || value instanceof Boolean) {
+            return 1;
+        } else if (value instanceof byte[]) {
+            return 4 + ((byte[]) value).length;
+        }
+        return 4 + String.valueOf(value).getBytes(StandardCharsets.UTF_8).length;
+    }
+    
+    private static void putValue(ByteBuffer buffer, Object value) {
+        if (value instanceof Integer) {
+            buffer.put(TYPE_INT).putInt((Integer) value);
+        } else if (value instanceof Long) {
+            buffer.put(TYPE_LONG).putLong((Long) value);
+        } else if (value instanceof Short) {
+            buffer.put(TYPE_SHORT).putShort((Short) value);
+        } else if (value instanceof Byte) {
+            buffer.put(TYPE_BYTE).put((Byte) value);
+        } else if (value instanceof Boolean) {
+            buffer.put(TYPE_BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof Double) {
+            buffer.put(TYPE_DOUBLE).putDouble((Double) value);
+        } else if (value instanceof Float) {
+            buffer.put(TYPE_FLOAT).putFloat((Float) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            buffer.put(TYPE_BYTES).putInt(bytes.length).put(bytes);
+        } else {
+            byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+            buffer.put(TYPE_STRING).putInt(bytes.length).put(bytes);
+        }
+    }
+    
+    private static Object getValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TYPE_INT: return buffer.getInt();
+            case TYPE_LONG: return buffer.getLong();
+            case TYPE_SHORT: return buffer.getShort();
+            case TYPE_BYTE: return buffer.get();
+            case TYPE_BOOLEAN: return buffer.get() != 0;
+            case TYPE_DOUBLE: return buffer.getDouble();
+            case TYPE_FLOAT: return buffer.getFloat();
+            case TYPE_BYTES:
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return bytes;
+            case TYPE_STRING: return getString(buffer);
+            default: throw new IllegalStateException("Unknown property type in snapshot: " + (char) type);
+        }
+    }
+    
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
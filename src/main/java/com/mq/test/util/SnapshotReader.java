@@ -0,0 +1,245 @@
+package com.mq.test.util;
+
+import com.mq.test.model.MQId;
+import com.mq.test.model.MQMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Memory-mapped reader for queue snapshot files written by {@link SnapshotWriter}. Messages are decoded
+ * from the mapping on each {@link #get(int)}, so a snapshot can be compared without first loading it onto
+ * the heap. Files larger than 2 GB are mapped as several regions split on record boundaries.
+ *
+ * <p>The reader is safe for concurrent use. The mapping is released by the garbage collector once the
+ * reader is unreachable.
+ */
+public class SnapshotReader implements AutoCloseable {
+    
+    private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+    
+    private final Path path;
+    private final long[] offsets;
+    private final long[] regionStarts;
+    private final MappedByteBuffer[] regions;
+    private final boolean complete;
+    
+    private SnapshotReader(Path path, long[] offsets, long[] regionStarts, MappedByteBuffer[] regions, boolean complete) {
+        this.path = path;
+        this.offsets = offsets;
+        this.regionStarts = regionStarts;
+        this.regions = regions;
+        this.complete = complete;
+    }
+    
+    /**
+     * Map a snapshot file. The offset index is read from the trailer; if the writer was interrupted
+     * before writing it, the index is rebuilt by scanning the complete records.
+     *
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static SnapshotReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer header = read(channel, 0, SnapshotFormat.HEADER_SIZE);
+            byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, SnapshotFormat.MAGIC)) {
+                throw new IOException("Not a queue snapshot file: " + path);
+            }
+            
+            long[] offsets = readIndex(channel, fileSize);
+            boolean complete = offsets != null;
+            long dataEnd;
+            if (complete) {
+                dataEnd = fileSize - SnapshotFormat.TRAILER_SIZE - 8L * offsets.length;
+            } else {
+                offsets = scan(channel, fileSize);
+                dataEnd = offsets.length == 0 ? SnapshotFormat.HEADER_SIZE
+                    : offsets[offsets.length - 1] + 4 + read(channel, offsets[offsets.length - 1], 4).getInt();
+            }
+            return map(path, channel, offsets, dataEnd, complete);
+        }
+    }
+    
+    private static long[] readIndex(FileChannel channel, long fileSize) throws IOException {
+        if (fileSize < SnapshotFormat.HEADER_SIZE + SnapshotFormat.TRAILER_SIZE) {
+            return null;
+        }
+        ByteBuffer trailer = read(channel, fileSize - SnapshotFormat.TRAILER_SIZE, SnapshotFormat.TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        int count = trailer.getInt();
+        if (trailer.getInt() != SnapshotFormat.INDEX_MAGIC || count < 0
+                || indexOffset + 8L * count + SnapshotFormat.TRAILER_SIZE != fileSize) {
+            return null;
+        }
+        long[] offsets = new long[count];
+        read(channel, indexOffset, 8 * count).asLongBuffer().get(offsets);
+        return offsets;
+    }
+    
+    /**
+     * Rebuild the index of a snapshot without trailer, ignoring a partially written last record
+     */
+    private static long[] scan(FileChannel channel, long fileSize) throws IOException {
+        long[] offsets = new long[1024];
+        int count = 0;
+        long position = SnapshotFormat.HEADER_SIZE;
+        while (position + SnapshotFormat.PAYLOAD <= fileSize) {
+            int length = read(channel, position, 4).getInt();
+            if (length < SnapshotFormat.PAYLOAD - 4 || position + 4 + length > fileSize) {
+                break;
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = position;
+            position += 4 + length;
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+    
+    private static SnapshotReader map(Path path, FileChannel channel, long[] offsets, long dataEnd,
+                                      boolean complete) throws IOException {
+        long[] starts = new long[4];
+        MappedByteBuffer[] regions = new MappedByteBuffer[4];
+        int regionCount = 0;
+        int first = 0;
+        while (first < offsets.length) {
+            long start = offsets[first];
+            int next = first + 1;
+            while (next < offsets.length && recordEnd(offsets, next, dataEnd) - start <= MAX_REGION_SIZE) {
+                next++;
+            }
+            long end = recordEnd(offsets, next - 1, dataEnd);
+            if (regionCount == regions.length) {
+                starts = Arrays.copyOf(starts, regionCount * 2);
+                regions = Arrays.copyOf(regions, regionCount * 2);
+            }
+            starts[regionCount] = start;
+            regions[regionCount++] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            first = next;
+        }
+        return new SnapshotReader(path, offsets, Arrays.copyOf(starts, regionCount),
+            Arrays.copyOf(regions, regionCount), complete);
+    }
+    
+    private static long recordEnd(long[] offsets, int index, long dataEnd) {
+        return index + 1 < offsets.length ? offsets[index + 1] : dataEnd;
+    }
+    
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of snapshot file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    /**
+     * Number of messages in the snapshot
+     */
+    public int size() {
+        return offsets.length;
+    }
+    
+    /**
+     * Whether the snapshot was closed cleanly; {@code false} if the index had to be rebuilt
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    /**
+     * Decode the message at the given position
+     */
+    public MQMessage get(int index) {
+        ByteBuffer record = record(index);
+        MQMessage msg = new MQMessage();
+        msg.setMessageId(MQId.of(record, SnapshotFormat.MESSAGE_ID));
+        msg.setCorrelationId(MQId.of(record, SnapshotFormat.CORRELATION_ID));
+        msg.setTimestamp(record.getLong(SnapshotFormat.TIMESTAMP));
+        msg.setPriority(record.getInt(SnapshotFormat.PRIORITY));
+        byte[] format = new byte[SnapshotFormat.FORMAT_LENGTH];
+        record.position(SnapshotFormat.FORMAT);
+        record.get(format);
+        msg.setFormat(new String(format, StandardCharsets.US_ASCII));
+        
+        byte[] payload = new byte[record.getInt(SnapshotFormat.PAYLOAD_LENGTH)];
+        record.position(SnapshotFormat.PAYLOAD);
+        record.get(payload);
+        msg.setPayloadBytes(payload, record.getInt(SnapshotFormat.CCSID));
+        
+        int propertiesLength = record.getInt(SnapshotFormat.PROPERTIES_LENGTH);
+        ByteBuffer properties = record.slice();
+        properties.limit(propertiesLength);
+        msg.setProperties(SnapshotFormat.decodeProperties(properties));
+        return msg;
+    }
+    
+    /**
+     * Undecoded view of the record at the given position, for comparing fields in place
+     */
+    public SnapshotRecord getRecord(int index) {
+        return new SnapshotRecord(record(index));
+    }
+    
+    /**
+     * Read-only list view decoding each message on access; nothing is cached
+     */
+    public List<MQMessage> asList() {
+        return new SnapshotList();
+    }
+    
+    /**
+     * Buffer over one record, positioned at 0 where the record length field starts
+     */
+    ByteBuffer record(int index) {
+        long offset = offsets[index];
+        int region = Arrays.binarySearch(regionStarts, offset);
+        if (region < 0) {
+            region = -region - 2;
+        }
+        ByteBuffer buffer = regions[region].duplicate();
+        int start = (int) (offset - regionStarts[region]);
+        buffer.position(start);
+        buffer.limit(start + 4 + buffer.getInt(start));
+        return buffer.slice();
+    }
+    
+    /**
+     * Mappings cannot be released explicitly before Java 21; this only drops the reader's references
+     */
+    @Override
+    public void close() {
+        Arrays.fill(regions, null);
+    }
+    
+    private final class SnapshotList extends AbstractList<MQMessage> implements RandomAccess {
+        @Override
+        public MQMessage get(int index) {
+            return SnapshotReader.this.get(index);
+        }
+        
+        @Override
+        public int size() {
+            return offsets.length;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.mq.test.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * View of one record inside a mapped snapshot file. Fields are read straight from the mapping;
+ * byte fields are returned as read-only slices of it, so records can be compared without copying.
+ */
+public final class SnapshotRecord {
+    
+    private final ByteBuffer record;
+    
+    SnapshotRecord(ByteBuffer record) {
+        this.record = record;
+    }
+    
+    /**
+     * The 24 message ID bytes
+     */
+    public ByteBuffer getMessageId() {
+        return slice(SnapshotFormat.MESSAGE_ID, SnapshotFormat.ID_LENGTH);
+    }
+    
+    /**
+     * The 24 correlation ID bytes
+     */
+    public ByteBuffer getCorrelationId() {
+        return slice(SnapshotFormat.CORRELATION_ID, SnapshotFormat.ID_LENGTH);
+    }
+    
+    public long getTimestamp() {
+        return record.getLong(SnapshotFormat.TIMESTAMP);
+    }
+    
+    public int getPriority() {
+        return record.getInt(SnapshotFormat.PRIORITY);
+    }
+    
+    /**
+     * The 8 space-padded ASCII format bytes
+     */
+    public ByteBuffer getFormat() {
+        return slice(SnapshotFormat.FORMAT, SnapshotFormat.FORMAT_LENGTH);
+    }
+    
+    public int getCharacterSet() {
+        return record.getInt(SnapshotFormat.CCSID);
+    }
+    
+    public int getPayloadLength() {
+        return record.getInt(SnapshotFormat.PAYLOAD_LENGTH);
+    }
+    
+    /**
+     * Raw message body
+     */
+    public ByteBuffer getPayload() {
+        return slice(SnapshotFormat.PAYLOAD, getPayloadLength());
+    }
+    
+    /**
+     * Encoded message properties; equal bytes mean equal properties in the same order
+     */
+    public ByteBuffer getProperties() {
+        return slice(SnapshotFormat.PAYLOAD + getPayloadLength(), record.getInt(SnapshotFormat.PROPERTIES_LENGTH));
+    }
+    
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer slice = record.duplicate();
+        slice.limit(offset + length).position(offset);
+        return slice.slice();
+    }
+}
\ No newline at end of file
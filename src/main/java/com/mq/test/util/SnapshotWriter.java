@@ -0,0 +1,147 @@
+package com.mq.test.util;
+
+import com.mq.test.model.MQId;
+import com.mq.test.model.MQMessage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Writes messages to a queue snapshot file (see {@link SnapshotFormat}) for offline comparison with
+ * {@link SnapshotReader}. Records are appended as they arrive, so a queue of any depth can be exported
+ * straight from an {@link MQMessageStream}. The offset index and trailer are only written by
+ * {@link #finish()}; a writer closed without it leaves a file that {@link SnapshotReader} opens as
+ * incomplete, so an export cut short by a failure never passes for a full snapshot.
+ */
+public class SnapshotWriter implements AutoCloseable {
+    
+    private final Path path;
+    private final DataOutputStream out;
+    private final ByteBuffer fixed = ByteBuffer.allocate(SnapshotFormat.PAYLOAD);
+    private long[] offsets = new long[1024];
+    private int count;
+    private long position;
+    private boolean closed;
+    
+    public SnapshotWriter(Path path) throws IOException {
+        this.path = path;
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.write(SnapshotFormat.MAGIC);
+        out.writeInt(0);
+        position = SnapshotFormat.HEADER_SIZE;
+    }
+    
+    /**
+     * Write every message of a stream or list to a new snapshot file
+     *
+     * @return Number of messages written
+     */
+    public static int write(Path path, Iterator<MQMessage> messages) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(path)) {
+            while (messages.hasNext()) {
+                writer.append(messages.next());
+            }
+            writer.finish();
+            return writer.getCount();
+        }
+    }
+    
+    /**
+     * Append one message. Message and correlation IDs are stored as their 24 MQ bytes; the format is
+     * stored as 8 space-padded ASCII characters.
+     *
+     * @throws IllegalArgumentException if an ID is missing or not 48 hex digits; nothing is written
+     */
+    public void append(MQMessage message) throws IOException {
+        MQId messageId = MQMessageReader.requireId(message.getMessageIdValue(), message.getMessageId(), "Message ID");
+        MQId correlationId = MQMessageReader.requireId(
+            message.getCorrelationIdValue(), message.getCorrelationId(), "Correlation ID");
+        byte[] payload = message.getPayloadBytes();
+        if (payload == null) {
+            payload = new byte[0];
+        }
+        byte[] properties = SnapshotFormat.encodeProperties(message.getProperties());
+        
+        fixed.clear();
+        fixed.putInt(SnapshotFormat.PAYLOAD - 4 + payload.length + properties.length);
+        fixed.put(messageId.toBytes());
+        fixed.put(correlationId.toBytes());
+        fixed.putLong(message.getTimestamp());
+        fixed.putInt(message.getPriority());
+        fixed.put(formatBytes(message.getFormat()));
+        fixed.putInt(message.getCharacterSet());
+        fixed.putInt(payload.length);
+        fixed.putInt(properties.length);
+        
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        offsets[count++] = position;
+        out.write(fixed.array(), 0, fixed.position());
+        out.write(payload);
+        out.write(properties);
+        position += fixed.position() + payload.length + properties.length;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    /**
+     * Write the offset index and trailer, marking the snapshot complete, then close the file
+     */
+    public void finish() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Snapshot writer is closed: " + path);
+        }
+        try {
+            long indexOffset = position;
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(count);
+            out.writeInt(SnapshotFormat.INDEX_MAGIC);
+        } finally {
+            close();
+        }
+    }
+    
+    /**
+     * Close the file; without a prior {@link #finish()} the records written so far stay readable
+     * but the snapshot is reported as incomplete
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        out.close();
+    }
+    
+    private static byte[] formatBytes(String format) {
+        byte[] bytes = new byte[SnapshotFormat.FORMAT_LENGTH];
+        Arrays.fill(bytes, (byte) ' ');
+        if (format != null) {
+            byte[] ascii = format.getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(ascii, 0, bytes, 0, Math.min(ascii.length, bytes.length));
+        }
+        return bytes;
+    }
+}
\ No newline at end of file
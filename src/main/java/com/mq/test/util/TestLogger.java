@@ -88,6 +88,7 @@ public class TestLogger {
             for (String diff : result.getDifferences()) {
                 logFail(test, diff);
             }
+            logDifferenceSummary(test, result);
         }
     }
     
@@ -104,6 +105,22 @@ public class TestLogger {
             for (String diff : result.getDifferences()) {
                 logWarning(test, diff);
             }
+            logDifferenceSummary(test, result);
+        }
+    }
+    
+    /**
+     * Log the differences beyond the report cap and, when several fields differ, the count per field
+     */
+    private static void logDifferenceSummary(ExtentTest test, ComparisonResult result) {
+        if (result.getSuppressedDifferences() > 0) {
+            logInfo(test, String.format("... %d more differences not shown (%d total)",
+                result.getSuppressedDifferences(), result.getTotalDifferences()));
+        }
+        if (result.getFieldCounts().size() > 1) {
+            StringBuilder sb = new StringBuilder("Differences by field:");
+            result.getFieldCounts().forEach((field, count) -> sb.append(' ').append(field).append('=').append(count));
+            logInfo(test, sb.toString());
         }
     }
     
@@ -143,6 +160,14 @@ public class TestLogger {
             messageCount, queueName));
     }
     
+    /**
+     * Log per-queue read time and throughput
+     */
+    public static void logReadTiming(ExtentTest test, String queueName, int messageCount, long elapsedMs, double throughput) {
+        logInfo(test, String.format("Read %d messages from '%s' in %d ms (%.1f msg/s)",
+            messageCount, queueName, elapsedMs, throughput));
+    }
+    
     /**
      * Log statistics
      */
@@ -251,4 +276,3 @@ public class TestLogger {
         return result;
     }
 }
-
@@ -5,13 +5,25 @@ package com.mq.test;
 
 import com.aventstack.extentreports.ExtentTest;
 import com.ibm.mq.MQException;
+import com.mq.test.comparator.AlignmentResult;
+import com.mq.test.comparator.CheckpointStore;
+import com.mq.test.comparator.ComparisonCheck;
+import com.mq.test.comparator.ComparisonCheckpoint;
+import com.mq.test.comparator.ComparisonPlan;
 import com.mq.test.comparator.MessageComparator;
+import com.mq.test.comparator.MessageKeyExtractor;
+import com.mq.test.comparator.StreamComparison;
 import com.mq.test.config.*;
 import com.mq.test.error.MQErrorHandler;
 import com.mq.test.model.ComparisonResult;
 import com.mq.test.model.MQMessage;
+import com.mq.test.model.QueueReadResult;
 import com.mq.test.report.ExtentReportManager;
+import com.mq.test.util.MQConnectionPool;
 import com.mq.test.util.MQMessageReader;
+import com.mq.test.util.MQMessageStream;
+import com.mq.test.util.ReadOptions;
+import com.mq.test.util.SnapshotWriter;
 import com.mq.test.util.TestLogger;
 import org.junit.jupiter.api.*;
 
@@ -19,8 +31,13 @@ import java.io.IOException;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,9 +50,13 @@ public class MQQueueComparisonTest {
     private static MQConnectionConfig mqConfig;
     private static QueueConfiguration queueConfig;
     private static TestConfiguration testConfig;
+    private static ComparisonConfiguration comparisonConfig;
     
     private static List<MQMessage> queue1Messages;
     private static List<MQMessage> queue2Messages;
+    private static Map<ComparisonCheck, ComparisonResult> fusedResults;
+    private static AlignmentResult alignment;
+    private static boolean alignmentResolved = false;
     private static boolean setupSuccessful = false;
     private static String setupErrorMessage = null;
     private static ExtentTest setupTest;
@@ -68,6 +89,8 @@ public class MQQueueComparisonTest {
             mqConfig = ConfigurationManager.getMQConfig();
             queueConfig = ConfigurationManager.getQueueConfig();
             testConfig = ConfigurationManager.getTestConfig();
+            comparisonConfig = ConfigurationManager.getComparisonConfig();
+            MQConnectionPool.configureDefault(ConfigurationManager.getPoolConfig());
             
             // Re-initialize report with environment-specific path
             ExtentReportManager.initReport(testConfig.getReportOutputPath());
@@ -107,70 +130,19 @@ public class MQQueueComparisonTest {
                 TestLogger.logWarning(setupTest, "Queue bootstrap failed: " + e.getMessage());
             }
             
-            // Read messages from Queue 1
-            TestLogger.printConsoleSection("Reading Queue: " + queueConfig.getQueue1Name());
-            try {
-                queue1Messages = MQMessageReader.readMessages(
-                    mqConfig, 
-                    queueConfig.getQueue1Name(), 
-                    queueConfig.getMaxMessages(), 
-                    queueConfig.isBrowseMode()
-                );
-                TestLogger.logConnectionSuccess(setupTest, queueConfig.getQueue1Name(), 
-                    queue1Messages.size());
-            } catch (MQException mqe) {
-                MQErrorHandler.handleMQException(setupTest, queueConfig.getQueue1Name(), mqe);
-                setupErrorMessage = MQErrorHandler.handleMQException(queueConfig.getQueue1Name(), mqe);
-                throw mqe;
-            } catch (UnknownHostException uhe) {
-                MQErrorHandler.handleUnknownHostException(setupTest, mqConfig, uhe);
-                setupErrorMessage = MQErrorHandler.handleUnknownHostException(mqConfig, uhe);
-                throw uhe;
-            } catch (ConnectException ce) {
-                MQErrorHandler.handleConnectionException(setupTest, mqConfig, ce);
-                setupErrorMessage = MQErrorHandler.handleConnectionException(mqConfig, ce);
-                throw ce;
-            } catch (SocketTimeoutException ste) {
-                MQErrorHandler.handleTimeoutException(setupTest, mqConfig, ste);
-                setupErrorMessage = MQErrorHandler.handleTimeoutException(mqConfig, ste);
-                throw ste;
-            } catch (IOException ioe) {
-                MQErrorHandler.handleIOException(setupTest, ioe);
-                setupErrorMessage = MQErrorHandler.handleIOException(ioe);
-                throw ioe;
-            }
-            
-            // Read messages from Queue 2
-            TestLogger.printConsoleSection("Reading Queue: " + queueConfig.getQueue2Name());
-            try {
-                queue2Messages = MQMessageReader.readMessages(
-                    mqConfig, 
-                    queueConfig.getQueue2Name(), 
-                    queueConfig.getMaxMessages(), 
-                    queueConfig.isBrowseMode()
-                );
-                TestLogger.logConnectionSuccess(setupTest, queueConfig.getQueue2Name(), 
-                    queue2Messages.size());
-            } catch (MQException mqe) {
-                MQErrorHandler.handleMQException(setupTest, queueConfig.getQueue2Name(), mqe);
-                setupErrorMessage = MQErrorHandler.handleMQException(queueConfig.getQueue2Name(), mqe);
-                throw mqe;
-            } catch (UnknownHostException uhe) {
-                MQErrorHandler.handleUnknownHostException(setupTest, mqConfig, uhe);
-                setupErrorMessage = MQErrorHandler.handleUnknownHostException(mqConfig, uhe);
-                throw uhe;
-            } catch (ConnectException ce) {
-                MQErrorHandler.handleConnectionException(setupTest, mqConfig, ce);
-                setupErrorMessage = MQErrorHandler.handleConnectionException(mqConfig, ce);
-                throw ce;
-            } catch (SocketTimeoutException ste) {
-                MQErrorHandler.handleTimeoutException(setupTest, mqConfig, ste);
-                setupErrorMessage = MQErrorHandler.handleTimeoutException(mqConfig, ste);
-                throw ste;
-            } catch (IOException ioe) {
-                MQErrorHandler.handleIOException(setupTest, ioe);
-                setupErrorMessage = MQErrorHandler.handleIOException(ioe);
-                throw ioe;
+            // Read both queues concurrently, each over its own connection
+            TestLogger.printConsoleSection("Reading Queues: " + queueConfig.getQueue1Name() + ", " + queueConfig.getQueue2Name());
+            List<QueueReadResult> reads = MQMessageReader.readQueues(
+                mqConfig, 
+                Arrays.asList(queueConfig.getQueue1Name(), queueConfig.getQueue2Name()), 
+                queueConfig.getMaxMessages(), 
+                readOptions()
+            );
+            queue1Messages = checkQueueRead(reads.get(0));
+            queue2Messages = checkQueueRead(reads.get(1));
+            if (!comparisonConfig.getSnapshotDirectory().isEmpty()) {
+                exportSnapshot(queueConfig.getQueue1Name(), queue1Messages);
+                exportSnapshot(queueConfig.getQueue2Name(), queue2Messages);
             }
             
             TestLogger.logPass(setupTest, "Setup completed successfully");
@@ -186,6 +158,57 @@ public class MQQueueComparisonTest {
         }
     }
     
+    /**
+     * Save a queue snapshot so the run can be repeated offline with MessageComparator.compareSnapshots
+     */
+    private static void exportSnapshot(String queueName, List<MQMessage> messages) throws IOException {
+        Path path = Paths.get(comparisonConfig.getSnapshotDirectory(), queueName + ".snap");
+        int count = SnapshotWriter.write(path, messages.iterator());
+        TestLogger.logInfo(setupTest, String.format("Snapshot of %s: %d messages written to %s", queueName, count, path));
+    }
+    
+    /**
+     * Read options from the queue configuration
+     */
+    private static ReadOptions readOptions() {
+        return new ReadOptions(queueConfig.isBrowseMode(), queueConfig.getBatchSize(), queueConfig.isReadAhead(),
+            queueConfig.getBufferSize());
+    }
+    
+    /**
+     * Log a queue read and rethrow its failure through the matching MQErrorHandler path
+     */
+    private static List<MQMessage> checkQueueRead(QueueReadResult read) throws Exception {
+        String queueName = read.getQueueName();
+        try {
+            read.rethrowIfFailed();
+            TestLogger.logConnectionSuccess(setupTest, queueName, read.getMessages().size());
+            TestLogger.logReadTiming(setupTest, queueName, read.getMessages().size(), 
+                read.getElapsedMs(), read.getThroughput());
+            return read.getMessages();
+        } catch (MQException mqe) {
+            MQErrorHandler.handleMQException(setupTest, queueName, mqe);
+            setupErrorMessage = MQErrorHandler.handleMQException(queueName, mqe);
+            throw mqe;
+        } catch (UnknownHostException uhe) {
+            MQErrorHandler.handleUnknownHostException(setupTest, mqConfig, uhe);
+            setupErrorMessage = MQErrorHandler.handleUnknownHostException(mqConfig, uhe);
+            throw uhe;
+        } catch (ConnectException ce) {
+            MQErrorHandler.handleConnectionException(setupTest, mqConfig, ce);
+            setupErrorMessage = MQErrorHandler.handleConnectionException(mqConfig, ce);
+            throw ce;
+        } catch (SocketTimeoutException ste) {
+            MQErrorHandler.handleTimeoutException(setupTest, mqConfig, ste);
+            setupErrorMessage = MQErrorHandler.handleTimeoutException(mqConfig, ste);
+            throw ste;
+        } catch (IOException ioe) {
+            MQErrorHandler.handleIOException(setupTest, ioe);
+            setupErrorMessage = MQErrorHandler.handleIOException(ioe);
+            throw ioe;
+        }
+    }
+    
     private void checkSetupSuccess() {
         if (!setupSuccessful && testConfig != null && testConfig.isSkipOnSetupFailure()) {
             ExtentTest test = ExtentReportManager.getTest();
@@ -198,6 +221,52 @@ public class MQQueueComparisonTest {
         }
     }
     
+    /**
+     * Pair the two queues on the configured alignment key once; {@code null} means positional comparison
+     */
+    private static synchronized AlignmentResult alignment() {
+        if (!alignmentResolved) {
+            if (comparisonConfig.isSequenceDiff()) {
+                alignment = MessageComparator.alignBySequenceDiff(queue1Messages, queue2Messages,
+                    comparisonConfig.getDiffMaxEdits());
+            } else {
+                MessageKeyExtractor extractor = MessageKeyExtractor.fromSpec(comparisonConfig.getAlignmentKey());
+                alignment = extractor == null ? null : MessageComparator.alignByKey(queue1Messages, queue2Messages, extractor);
+            }
+            alignmentResolved = true;
+        }
+        return alignment;
+    }
+    
+    /**
+     * Evaluate all pairwise checks in one pass on first use and share the results across tests
+     */
+    private static synchronized ComparisonResult fusedResult(ComparisonCheck check) {
+        if (fusedResults == null) {
+            ComparisonPlan plan = ComparisonPlan.all(testConfig.getTimestampToleranceMs())
+                .withChecksum(comparisonConfig.getChecksumAlgorithm())
+                .withMaxDifferences(comparisonConfig.getMaxDifferences())
+                .withPropertyFilter(comparisonConfig.getPropertyFilter());
+            AlignmentResult pairs = alignment();
+            if (comparisonConfig.isParallelEnabled()) {
+                ForkJoinPool pool = comparisonConfig.getParallelism() > 0
+                    ? new ForkJoinPool(comparisonConfig.getParallelism())
+                    : ForkJoinPool.commonPool();
+                try {
+                    fusedResults = MessageComparator.compareAlignedParallel(plan, queue1Messages, queue2Messages,
+                        pairs, pool, comparisonConfig.getParallelChunkSize());
+                } finally {
+                    if (pool != ForkJoinPool.commonPool()) {
+                        pool.shutdown();
+                    }
+                }
+            } else {
+                fusedResults = MessageComparator.compareAligned(plan, queue1Messages, queue2Messages, pairs);
+            }
+        }
+        return fusedResults.get(check);
+    }
+    
     @Test
     @Order(1)
     @DisplayName("Compare Message Count")
@@ -227,7 +296,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Payload Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.comparePayloads(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.PAYLOAD);
             TestLogger.logInfo(test, String.format("Comparing %d messages", 
                 Math.min(queue1Messages.size(), queue2Messages.size())));
             TestLogger.logComparisonResult(test, result);
@@ -248,7 +317,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Message ID Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.compareMessageIds(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.MESSAGE_ID);
             TestLogger.logComparisonResultAsWarning(test, result);
             TestLogger.logInfo(test, "Message ID comparison completed");
             TestLogger.logTestEnd(test, "Message ID Comparison", true);
@@ -267,7 +336,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Correlation ID Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.compareCorrelationIds(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.CORRELATION_ID);
             TestLogger.logComparisonResult(test, result);
             assertTrue(result.isPassed(), "Correlation ID comparison failed");
             TestLogger.logTestEnd(test, "Correlation ID Comparison", result.isPassed());
@@ -286,7 +355,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Priority Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.comparePriorities(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.PRIORITY);
             TestLogger.logComparisonResult(test, result);
             assertTrue(result.isPassed(), "Priority comparison failed");
             TestLogger.logTestEnd(test, "Priority Comparison", result.isPassed());
@@ -305,7 +374,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Message Ordering");
         
         try {
-            ComparisonResult result = MessageComparator.compareOrdering(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.ORDERING);
             TestLogger.logComparisonResult(test, result);
             assertTrue(result.isPassed(), "Message ordering differs");
             TestLogger.logTestEnd(test, "Message Ordering", result.isPassed());
@@ -351,7 +420,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Format Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.compareFormats(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.FORMAT);
             TestLogger.logComparisonResult(test, result);
             assertTrue(result.isPassed(), "Format comparison failed");
             TestLogger.logTestEnd(test, "Format Comparison", result.isPassed());
@@ -374,7 +443,7 @@ public class MQQueueComparisonTest {
             TestLogger.logInfo(test, String.format("Using tolerance: %dms (from %s config)", 
                 toleranceMs, ConfigurationManager.getCurrentEnvironment()));
             
-            ComparisonResult result = MessageComparator.compareTimestamps(queue1Messages, queue2Messages, toleranceMs);
+            ComparisonResult result = fusedResult(ComparisonCheck.TIMESTAMP);
             TestLogger.logComparisonResultAsWarning(test, result);
             TestLogger.logInfo(test, "Timestamp comparison completed");
             TestLogger.logTestEnd(test, "Timestamp Comparison", true);
@@ -393,7 +462,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Property Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.compareMessageProperties(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.PROPERTIES);
             TestLogger.logComparisonResult(test, result);
             assertTrue(result.isPassed(), "Property comparison failed");
             TestLogger.logTestEnd(test, "Property Comparison", result.isPassed());
@@ -412,7 +481,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Payload Length Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.comparePayloadLength(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.PAYLOAD_LENGTH);
             TestLogger.logComparisonResult(test, result);
             assertTrue(result.isPassed(), "Payload length comparison failed");
             TestLogger.logTestEnd(test, "Payload Length Comparison", result.isPassed());
@@ -431,7 +500,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Payload Structure Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.comparePayloadStructure(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.PAYLOAD_STRUCTURE);
             TestLogger.logComparisonResult(test, result);
             assertTrue(result.isPassed(), "Payload structure comparison failed");
             TestLogger.logTestEnd(test, "Payload Structure Comparison", result.isPassed());
@@ -450,7 +519,8 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Duplicate Check - Queue1");
         
         try {
-            ComparisonResult result = MessageComparator.findDuplicateMessages(queue1Messages, queueConfig.getQueue1Name());
+            ComparisonResult result = MessageComparator.findDuplicateMessages(queue1Messages, queueConfig.getQueue1Name(),
+                comparisonConfig.getDuplicateKey(), comparisonConfig.getMaxDifferences());
             TestLogger.logComparisonResultAsWarning(test, result);
             TestLogger.logInfo(test, "Duplicate check completed for Queue1");
             TestLogger.logTestEnd(test, "Duplicate Check - Queue1", true);
@@ -469,7 +539,8 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Duplicate Check - Queue2");
         
         try {
-            ComparisonResult result = MessageComparator.findDuplicateMessages(queue2Messages, queueConfig.getQueue2Name());
+            ComparisonResult result = MessageComparator.findDuplicateMessages(queue2Messages, queueConfig.getQueue2Name(),
+                comparisonConfig.getDuplicateKey(), comparisonConfig.getMaxDifferences());
             TestLogger.logComparisonResultAsWarning(test, result);
             TestLogger.logInfo(test, "Duplicate check completed for Queue2");
             TestLogger.logTestEnd(test, "Duplicate Check - Queue2", true);
@@ -488,7 +559,8 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Sequence Check - Queue1");
         
         try {
-            ComparisonResult result = MessageComparator.checkMessageSequence(queue1Messages, queueConfig.getQueue1Name());
+            ComparisonResult result = MessageComparator.checkMessageSequence(queue1Messages, queueConfig.getQueue1Name(),
+                comparisonConfig.getMaxDifferences());
             TestLogger.logComparisonResultAsWarning(test, result);
             TestLogger.logInfo(test, "Sequence check completed for Queue1");
             TestLogger.logTestEnd(test, "Sequence Check - Queue1", true);
@@ -507,7 +579,8 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Sequence Check - Queue2");
         
         try {
-            ComparisonResult result = MessageComparator.checkMessageSequence(queue2Messages, queueConfig.getQueue2Name());
+            ComparisonResult result = MessageComparator.checkMessageSequence(queue2Messages, queueConfig.getQueue2Name(),
+                comparisonConfig.getMaxDifferences());
             TestLogger.logComparisonResultAsWarning(test, result);
             TestLogger.logInfo(test, "Sequence check completed for Queue2");
             TestLogger.logTestEnd(test, "Sequence Check - Queue2", true);
@@ -526,7 +599,7 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Checksum Comparison");
         
         try {
-            ComparisonResult result = MessageComparator.comparePayloadChecksum(queue1Messages, queue2Messages);
+            ComparisonResult result = fusedResult(ComparisonCheck.PAYLOAD_CHECKSUM);
             TestLogger.logComparisonResult(test, result);
             assertTrue(result.isPassed(), "Checksum comparison failed");
             TestLogger.logTestEnd(test, "Checksum Comparison", result.isPassed());
@@ -545,17 +618,17 @@ public class MQQueueComparisonTest {
         TestLogger.logTestStart(test, "Statistical Summary");
         
         try {
-            long totalSize1 = queue1Messages.stream().mapToLong(m -> m.getPayload().length()).sum();
-            long totalSize2 = queue2Messages.stream().mapToLong(m -> m.getPayload().length()).sum();
+            long totalSize1 = queue1Messages.stream().mapToLong(MQMessage::getPayloadLength).sum();
+            long totalSize2 = queue2Messages.stream().mapToLong(MQMessage::getPayloadLength).sum();
             
             double avgSize1 = queue1Messages.isEmpty() ? 0 : (double)totalSize1 / queue1Messages.size();
             double avgSize2 = queue2Messages.isEmpty() ? 0 : (double)totalSize2 / queue2Messages.size();
             
-            long minSize1 = queue1Messages.stream().mapToLong(m -> m.getPayload().length()).min().orElse(0);
-            long minSize2 = queue2Messages.stream().mapToLong(m -> m.getPayload().length()).min().orElse(0);
+            long minSize1 = queue1Messages.stream().mapToLong(MQMessage::getPayloadLength).min().orElse(0);
+            long minSize2 = queue2Messages.stream().mapToLong(MQMessage::getPayloadLength).min().orElse(0);
             
-            long maxSize1 = queue1Messages.stream().mapToLong(m -> m.getPayload().length()).max().orElse(0);
-            long maxSize2 = queue2Messages.stream().mapToLong(m -> m.getPayload().length()).max().orElse(0);
+            long maxSize1 = queue1Messages.stream().mapToLong(MQMessage::getPayloadLength).max().orElse(0);
+            long maxSize2 = queue2Messages.stream().mapToLong(MQMessage::getPayloadLength).max().orElse(0);
             
             TestLogger.logStatistics(test, queueConfig.getQueue1Name(), queue1Messages.size(), 
                 totalSize1, avgSize1, minSize1, maxSize1);
@@ -571,9 +644,91 @@ public class MQQueueComparisonTest {
         }
     }
     
+    @Test
+    @Order(19)
+    @DisplayName("Compare Key Alignment")
+    public void testKeyAlignment() {
+        checkSetupSuccess();
+        ExtentTest test = ExtentReportManager.createTest("Key Alignment", "Verify every message has a counterpart in the other queue");
+        TestLogger.logTestStart(test, "Key Alignment");
+        
+        try {
+            AlignmentResult pairs = alignment();
+            if (pairs == null) {
+                TestLogger.logInfo(test, "Positional comparison configured (comparison.alignment.key=POSITION)");
+                TestLogger.logTestEnd(test, "Key Alignment", true);
+                return;
+            }
+            TestLogger.logInfo(test, String.format("Aligning queues on key: %s", comparisonConfig.getAlignmentKey()));
+            ComparisonResult result = MessageComparator.compareAlignment(pairs);
+            TestLogger.logComparisonResult(test, result);
+            assertTrue(result.isPassed(), "Unmatched messages found");
+            TestLogger.logTestEnd(test, "Key Alignment", result.isPassed());
+        } catch (Exception e) {
+            TestLogger.logFail(test, "Exception during test: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    @Test
+    @Order(20)
+    @DisplayName("Streaming Full-Depth Comparison")
+    public void testStreamingComparison() throws Exception {
+        checkSetupSuccess();
+        ExtentTest test = ExtentReportManager.createTest("Streaming Comparison", "Compare both queues at full depth in constant memory");
+        TestLogger.logTestStart(test, "Streaming Comparison");
+        
+        if (!comparisonConfig.isStreamingEnabled() || !queueConfig.isBrowseMode()) {
+            TestLogger.logInfo(test, "Streaming comparison disabled (requires comparison.streaming.enabled=true and browse mode)");
+            TestLogger.logTestEnd(test, "Streaming Comparison", true);
+            return;
+        }
+        
+        CheckpointConfiguration checkpointConfig = ConfigurationManager.getCheckpointConfig();
+        CheckpointStore checkpoints = checkpointConfig.isEnabled()
+            ? new CheckpointStore(Paths.get(checkpointConfig.getPath()), checkpointConfig.getInterval(),
+                queueConfig.getQueue1Name(), queueConfig.getQueue2Name())
+            : null;
+        ComparisonCheckpoint resumeFrom = checkpoints != null ? checkpoints.load(comparisonConfig.getMaxDifferences()) : null;
+        if (resumeFrom != null) {
+            TestLogger.logInfo(test, String.format("Resuming from checkpoint after %d compared pairs (%s)",
+                resumeFrom.getCompared(), checkpoints.getPath()));
+        }
+        
+        // Resuming positions the cursor by message ID, which a read-ahead handle does not allow
+        ReadOptions streamOptions = resumeFrom != null && queueConfig.isReadAhead()
+            ? new ReadOptions(true, 0, false, queueConfig.getBufferSize()) : readOptions();
+        try (MQMessageStream stream1 = MQMessageReader.openStream(mqConfig, queueConfig.getQueue1Name(), Integer.MAX_VALUE, streamOptions,
+                 resumeFrom != null ? resumeFrom.getLastMessageId1() : null);
+             MQMessageStream stream2 = MQMessageReader.openStream(mqConfig, queueConfig.getQueue2Name(), Integer.MAX_VALUE, streamOptions,
+                 resumeFrom != null ? resumeFrom.getLastMessageId2() : null)) {
+            ComparisonPlan plan = ComparisonPlan.all(testConfig.getTimestampToleranceMs())
+                .withChecksum(comparisonConfig.getChecksumAlgorithm())
+                .withMaxDifferences(comparisonConfig.getMaxDifferences())
+                .withPropertyFilter(comparisonConfig.getPropertyFilter());
+            StreamComparison comparison = MessageComparator.compareStreams(plan, stream1, stream2, checkpoints, resumeFrom);
+            TestLogger.logInfo(test, String.format("Content fingerprints - Queue1: %016x, Queue2: %016x",
+                comparison.getQueue1Fingerprint(), comparison.getQueue2Fingerprint()));
+            
+            ComparisonResult countResult = comparison.compareMessageCount();
+            TestLogger.logComparisonResult(test, countResult);
+            boolean passed = countResult.isPassed();
+            for (ComparisonResult result : comparison.getResults().values()) {
+                TestLogger.logComparisonResult(test, result);
+                passed &= result.isPassed();
+            }
+            assertTrue(passed, "Streaming comparison found differences");
+            TestLogger.logTestEnd(test, "Streaming Comparison", passed);
+        } catch (Exception e) {
+            TestLogger.logFail(test, "Exception during test: " + e.getMessage());
+            throw e;
+        }
+    }
+    
     @AfterAll
     public static void tearDown() {
         try {
+            MQConnectionPool.shutdownDefault();
             ExtentReportManager.flush();
             
             String reportPath = testConfig != null ? testConfig.getReportOutputPath() : "target/ExtentReport.html";
@@ -0,0 +1,68 @@
+package com.mq.test;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Message fixtures and assertions shared by the offline tests
+ */
+public final class TestFixtures {
+    
+    private TestFixtures() {
+    }
+    
+    /**
+     * Message whose IDs are the index as 48 hex digits, with priority 5 and format MQSTR
+     */
+    public static MQMessage message(int index, String payload, long timestamp) {
+        MQMessage msg = new MQMessage();
+        msg.setMessageId(String.format("%048X", index));
+        msg.setCorrelationId(String.format("%048X", index));
+        msg.setPayload(payload);
+        msg.setTimestamp(timestamp);
+        msg.setPriority(5);
+        msg.setFormat("MQSTR   ");
+        return msg;
+    }
+    
+    /**
+     * Queue of {@code count} messages with JSON payloads {"index":i} and ascending timestamps
+     */
+    public static List<MQMessage> queue(int count) {
+        List<MQMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(message(i, "{\"index\":" + i + "}", 1_000L + i));
+        }
+        return messages;
+    }
+    
+    /**
+     * Same as {@link #queue(int)} with the formats assigned in rotation
+     */
+    public static List<MQMessage> queue(int count, String... formats) {
+        List<MQMessage> messages = queue(count);
+        for (int i = 0; i < count; i++) {
+            messages.get(i).setFormat(formats[i % formats.length]);
+        }
+        return messages;
+    }
+    
+    public static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * Assert two results have the same outcome, message and reported differences
+     */
+    public static void assertSameResult(ComparisonResult expected, ComparisonResult actual) {
+        assertEquals(expected.isPassed(), actual.isPassed());
+        assertEquals(expected.getMessage(), actual.getMessage());
+        assertEquals(expected.getDifferences(), actual.getDifferences());
+    }
+}
\ No newline at end of file
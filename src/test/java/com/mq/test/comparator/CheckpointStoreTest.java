@@ -0,0 +1,107 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointStoreTest {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    @DisplayName("A saved checkpoint loads back with its positions, fingerprints and results")
+    public void testRoundTrip() throws Exception {
+        CheckpointStore store = new CheckpointStore(dir.resolve("run.checkpoint"), 50, "Q1", "Q2");
+        store.save(checkpoint("Q1", "Q2", 120));
+        
+        ComparisonCheckpoint loaded = store.load(1000);
+        assertEquals(120, loaded.getCompared());
+        assertEquals(120, loaded.getQueue1Count());
+        assertEquals(125, loaded.getQueue2Count());
+        assertEquals(String.format("%048X", 119), loaded.getLastMessageId1());
+        assertEquals(String.format("%048X", 124), loaded.getLastMessageId2());
+        assertEquals(1_119L, loaded.getLastTimestamp1());
+        assertEquals(1_119L, loaded.getLastTimestamp2());
+        assertEquals(0x0123456789ABCDEFL, loaded.getFingerprint1());
+        assertEquals(0xFEDCBA9876543210L, loaded.getFingerprint2());
+        
+        ComparisonResult priority = loaded.getResults().get(ComparisonCheck.PRIORITY);
+        assertFalse(priority.isPassed());
+        assertEquals("2 priority mismatches", priority.getMessage());
+        assertEquals(List.of("Message 7 - priority", "Message 47 - priority"), priority.getDifferences());
+        assertEquals(2, priority.getTotalDifferences());
+        assertTrue(loaded.getResults().get(ComparisonCheck.PAYLOAD).isPassed());
+    }
+    
+    @Test
+    @DisplayName("Saving replaces the previous checkpoint")
+    public void testSaveReplaces() throws Exception {
+        CheckpointStore store = new CheckpointStore(dir.resolve("run.checkpoint"), 50, "Q1", "Q2");
+        store.save(checkpoint("Q1", "Q2", 50));
+        store.save(checkpoint("Q1", "Q2", 100));
+        
+        assertEquals(100, store.load(1000).getCompared());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+    
+    @Test
+    @DisplayName("There is nothing to resume without a checkpoint file")
+    public void testMissingFile() throws Exception {
+        CheckpointStore store = new CheckpointStore(dir.resolve("absent.checkpoint"), 50, "Q1", "Q2");
+        
+        assertNull(store.load(1000));
+    }
+    
+    @Test
+    @DisplayName("A checkpoint of another queue pair is ignored")
+    public void testOtherQueuePair() throws Exception {
+        Path path = dir.resolve("run.checkpoint");
+        new CheckpointStore(path, 50, "Q1", "Q2").save(checkpoint("Q1", "Q2", 50));
+        
+        assertNull(new CheckpointStore(path, 50, "Q1", "OTHER").load(1000));
+        assertNull(new CheckpointStore(path, 50, "OTHER", "Q2").load(1000));
+    }
+    
+    @Test
+    @DisplayName("Delete removes the checkpoint file and tolerates a missing one")
+    public void testDelete() {
+        CheckpointStore store = new CheckpointStore(dir.resolve("run.checkpoint"), 50, "Q1", "Q2");
+        store.save(checkpoint("Q1", "Q2", 50));
+        
+        store.delete();
+        assertFalse(Files.exists(store.getPath()));
+        store.delete();
+    }
+    
+    @Test
+    @DisplayName("The checkpoint interval must be positive")
+    public void testInvalidInterval() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new CheckpointStore(dir.resolve("run.checkpoint"), 0, "Q1", "Q2"));
+    }
+    
+    private static ComparisonCheckpoint checkpoint(String queue1Name, String queue2Name, int compared) {
+        Map<ComparisonCheck, ComparisonResult> results = new EnumMap<>(ComparisonCheck.class);
+        results.put(ComparisonCheck.PAYLOAD, new ComparisonResult(true, "All payloads match", 1000));
+        ComparisonResult priority = new ComparisonResult(false, "2 priority mismatches", 1000);
+        priority.addDifference("Message 7 - priority");
+        priority.addDifference("Message 47 - priority");
+        results.put(ComparisonCheck.PRIORITY, priority);
+        return new ComparisonCheckpoint(queue1Name, queue2Name, compared, compared, compared + 5,
+            String.format("%048X", compared - 1), String.format("%048X", compared + 4),
+            1_000L + compared - 1, 1_000L + compared - 1, 0x0123456789ABCDEFL, 0xFEDCBA9876543210L, results);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.mq.test.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChecksumAlgorithmTest {
+    
+    @Test
+    @DisplayName("xxHash64 matches the reference digests")
+    public void testXxHash64() {
+        assertEquals("ef46db3751d8e999", ChecksumAlgorithm.toHex(ChecksumAlgorithm.XXHASH64.digest(new byte[0])));
+        assertEquals("44bc2cf5ad770999", ChecksumAlgorithm.toHex(ChecksumAlgorithm.XXHASH64.digest(bytes("abc"))));
+        assertEquals("fbcea83c8a378bf1", ChecksumAlgorithm.toHex(
+            ChecksumAlgorithm.XXHASH64.digest(bytes("Nobody inspects the spammish repetition"))));
+    }
+    
+    @Test
+    @DisplayName("CRC32C matches the reference check value")
+    public void testCrc32c() {
+        assertEquals("e3069283", ChecksumAlgorithm.toHex(ChecksumAlgorithm.CRC32C.digest(bytes("123456789"))));
+    }
+    
+    @Test
+    @DisplayName("SHA-256 matches the reference digest")
+    public void testSha256() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+            ChecksumAlgorithm.toHex(ChecksumAlgorithm.SHA_256.digest(bytes("abc"))));
+    }
+    
+    @Test
+    @DisplayName("A message digest is computed once and recomputed after the payload changes")
+    public void testDigestCache() {
+        MQMessage msg = message(0, "{\"index\":0}", 1_000L);
+        byte[] digest = ChecksumAlgorithm.XXHASH64.digestOf(msg);
+        assertSame(digest, ChecksumAlgorithm.XXHASH64.digestOf(msg));
+        
+        msg.setPayload("{\"index\":1}");
+        assertFalse(Arrays.equals(digest, ChecksumAlgorithm.XXHASH64.digestOf(msg)));
+    }
+    
+    @Test
+    @DisplayName("A message without a payload has the digest of no bytes")
+    public void testEmptyPayloadDigest() {
+        MQMessage msg = message(0, null, 1_000L);
+        
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            assertArrayEquals(algorithm.digest(new byte[0]), algorithm.digestOf(msg), algorithm.name());
+        }
+    }
+    
+    @Test
+    @DisplayName("Concurrent digests with different algorithms never mix up the cached digest")
+    public void testDigestCacheAcrossAlgorithms() throws Exception {
+        List<MQMessage> messages = queue(200);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (ChecksumAlgorithm algorithm : List.of(ChecksumAlgorithm.XXHASH64, ChecksumAlgorithm.SHA_256)) {
+                runs.add(executor.submit(() -> {
+                    for (int round = 0; round < 50; round++) {
+                        for (MQMessage msg : messages) {
+                            assertArrayEquals(algorithm.digest(msg.getPayloadBytes()), algorithm.digestOf(msg));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,315 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.mq.test.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComparisonEngineTest {
+    
+    private static final String CCSID_TEXT = "{\"name\":\"Zoë\"}";
+    
+    @Test
+    @DisplayName("Identical queues pass every check")
+    public void testIdenticalQueuesPass() {
+        Map<ComparisonCheck, ComparisonResult> results =
+            MessageComparator.compare(ComparisonPlan.all(5000), queue(50), queue(50));
+        
+        assertEquals(ComparisonCheck.values().length, results.size());
+        results.forEach((check, result) -> assertTrue(result.isPassed(), check + " should pass"));
+    }
+    
+    @Test
+    @DisplayName("Fused run and individual comparator methods give the original results")
+    public void testFusedMatchesIndividualChecks() {
+        List<MQMessage> queue1 = queue(20);
+        List<MQMessage> queue2 = queue(20);
+        queue2.set(3, message(3, "<xml/>", 9_000L));
+        queue2.get(7).setPriority(1);
+        queue2.get(11).setFormat("MQHRF2  ");
+        
+        Map<ComparisonCheck, ComparisonResult> fused =
+            MessageComparator.compare(ComparisonPlan.all(5000), queue1, queue2);
+        
+        // Expected values are the output of the comparator before the single-pass engine was introduced
+        assertResult(false, "Payload mismatch found",
+            Arrays.asList("Message 3 - Queue1: {\"index\":3}, Queue2: <xml/>"),
+            fused.get(ComparisonCheck.PAYLOAD), MessageComparator.comparePayloads(queue1, queue2));
+        assertResult(true, "Message ID comparison", Arrays.asList(),
+            fused.get(ComparisonCheck.MESSAGE_ID), MessageComparator.compareMessageIds(queue1, queue2));
+        assertResult(true, "Correlation ID comparison", Arrays.asList(),
+            fused.get(ComparisonCheck.CORRELATION_ID), MessageComparator.compareCorrelationIds(queue1, queue2));
+        assertResult(false, "Priority mismatch found", Arrays.asList("Message 7 - Queue1: 5, Queue2: 1"),
+            fused.get(ComparisonCheck.PRIORITY), MessageComparator.comparePriorities(queue1, queue2));
+        assertResult(false, "Message ordering differs", Arrays.asList("Ordering differs at position 4"),
+            fused.get(ComparisonCheck.ORDERING), MessageComparator.compareOrdering(queue1, queue2));
+        assertResult(false, "Format mismatch found", Arrays.asList("Message 11 - Queue1: MQSTR   , Queue2: MQHRF2  "),
+            fused.get(ComparisonCheck.FORMAT), MessageComparator.compareFormats(queue1, queue2));
+        assertResult(false, "Timestamp difference exceeds tolerance", Arrays.asList("Message 3 - Difference: 7997ms"),
+            fused.get(ComparisonCheck.TIMESTAMP), MessageComparator.compareTimestamps(queue1, queue2, 5000));
+        assertResult(true, "Message properties comparison", Arrays.asList(),
+            fused.get(ComparisonCheck.PROPERTIES), MessageComparator.compareMessageProperties(queue1, queue2));
+        assertResult(false, "Payload length mismatch", Arrays.asList("Message 3 - Queue1: 11 bytes, Queue2: 6 bytes"),
+            fused.get(ComparisonCheck.PAYLOAD_LENGTH), MessageComparator.comparePayloadLength(queue1, queue2));
+        assertResult(false, "Payload structure type mismatch", Arrays.asList("Message 3 - Different payload formats detected"),
+            fused.get(ComparisonCheck.PAYLOAD_STRUCTURE), MessageComparator.comparePayloadStructure(queue1, queue2));
+        assertResult(false, "Checksum mismatch", Arrays.asList("Message 3 - Checksums differ"),
+            fused.get(ComparisonCheck.PAYLOAD_CHECKSUM), MessageComparator.comparePayloadChecksum(queue1, queue2));
+    }
+    
+    @Test
+    @DisplayName("Only planned checks are evaluated")
+    public void testPlanSubset() {
+        Map<ComparisonCheck, ComparisonResult> results = MessageComparator.compare(
+            ComparisonPlan.of(0, ComparisonCheck.PRIORITY, ComparisonCheck.FORMAT), queue(5), queue(5));
+        
+        assertEquals(2, results.size());
+        assertTrue(results.containsKey(ComparisonCheck.PRIORITY));
+        assertTrue(results.containsKey(ComparisonCheck.FORMAT));
+    }
+    
+    @Test
+    @DisplayName("Parallel chunked run matches the sequential run")
+    public void testParallelMatchesSequential() {
+        List<MQMessage> queue1 = queue(1000);
+        List<MQMessage> queue2 = queue(1000);
+        for (int i = 0; i < 1000; i += 97) {
+            queue2.set(i, message(i, "changed-" + i, 1_000L + i));
+        }
+        queue2.get(500).setTimestamp(0L);
+        queue2.get(640).setPriority(9);
+        
+        ComparisonPlan plan = ComparisonPlan.all(5000);
+        Map<ComparisonCheck, ComparisonResult> sequential = MessageComparator.compare(plan, queue1, queue2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Map<ComparisonCheck, ComparisonResult> parallel =
+                MessageComparator.compareParallel(plan, queue1, queue2, executor, 100);
+            
+            assertEquals(sequential.keySet(), parallel.keySet());
+            sequential.forEach((check, result) -> assertSameResult(result, parallel.get(check)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("Every mismatch of a check is reported in one result")
+    public void testDifferencesAccumulate() {
+        List<MQMessage> queue1 = queue(500);
+        List<MQMessage> queue2 = queue(500);
+        for (int i = 0; i < 500; i += 50) {
+            queue2.get(i).setPriority(1);
+        }
+        
+        ComparisonResult priority = MessageComparator.comparePriorities(queue1, queue2);
+        assertFalse(priority.isPassed());
+        assertEquals("Priority mismatch found", priority.getMessage());
+        assertEquals(10, priority.getTotalDifferences());
+        assertEquals("Message 0 - Queue1: 5, Queue2: 1", priority.getDifferences().get(0));
+        assertEquals("Message 450 - Queue1: 5, Queue2: 1", priority.getDifferences().get(9));
+    }
+    
+    @Test
+    @DisplayName("Parallel chunks merge into one capped result with exact counts")
+    public void testParallelDifferencesAccumulate() {
+        List<MQMessage> queue1 = queue(500);
+        List<MQMessage> queue2 = queue(500);
+        for (int i = 0; i < 500; i += 50) {
+            queue2.get(i).setPriority(1);
+        }
+        
+        ComparisonPlan plan = ComparisonPlan.of(0, ComparisonCheck.PRIORITY).withMaxDifferences(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ComparisonResult parallel = MessageComparator.compareParallel(plan, queue1, queue2, executor, 60)
+                .get(ComparisonCheck.PRIORITY);
+            assertEquals(10, parallel.getTotalDifferences());
+            assertEquals(List.of("Message 0 - Queue1: 5, Queue2: 1", "Message 50 - Queue1: 5, Queue2: 1",
+                "Message 100 - Queue1: 5, Queue2: 1", "Message 150 - Queue1: 5, Queue2: 1"), parallel.getDifferences());
+            assertEquals(Map.of("priority", 10L), parallel.getFieldCounts());
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("Every sequence violation is reported in one result")
+    public void testSequenceViolationsAccumulate() {
+        List<MQMessage> unordered = queue(6);
+        unordered.get(2).setTimestamp(0L);
+        unordered.get(5).setTimestamp(0L);
+        
+        ComparisonResult sequence = MessageComparator.checkMessageSequence(unordered, "Q1");
+        assertFalse(sequence.isPassed());
+        assertEquals(List.of("Message at position 2 is out of sequence", "Message at position 5 is out of sequence"),
+            sequence.getDifferences());
+    }
+    
+    @Test
+    @DisplayName("The plan's difference cap is applied to every result")
+    public void testPlanDifferenceCap() {
+        List<MQMessage> queue2 = queue(5);
+        queue2.forEach(msg -> msg.setPriority(1));
+        
+        ComparisonResult capped = MessageComparator.compare(
+            ComparisonPlan.of(0, ComparisonCheck.PRIORITY).withMaxDifferences(0), queue(5), queue2)
+            .get(ComparisonCheck.PRIORITY);
+        assertEquals(0, capped.getMaxDifferences());
+        assertTrue(capped.getDifferences().isEmpty());
+        assertEquals(5, capped.getTotalDifferences());
+    }
+    
+    @Test
+    @DisplayName("Properties are merged by name, reporting changed and missing ones")
+    public void testPropertiesMerge() {
+        List<MQMessage> queue1 = propertyQueue("app-one");
+        List<MQMessage> queue2 = propertyQueue("app-two");
+        queue2.get(1).getProperties().put("region", "APAC");
+        queue1.get(2).getProperties().remove("region");
+        queue1.get(2).getProperties().put("zone", "1");
+        
+        ComparisonResult result = MessageComparator.compare(ComparisonPlan.of(0L, ComparisonCheck.PROPERTIES),
+            queue1, queue2).get(ComparisonCheck.PROPERTIES);
+        assertEquals(Arrays.asList(
+            "Message 0 - Property 'JMSXAppID': Queue1=app-one, Queue2=app-two",
+            "Message 1 - Property 'JMSXAppID': Queue1=app-one, Queue2=app-two",
+            "Message 1 - Property 'region': Queue1=EMEA, Queue2=APAC",
+            "Message 2 - Property 'JMSXAppID': Queue1=app-one, Queue2=app-two",
+            "Message 2 - Property 'region' missing in Queue1",
+            "Message 2 - Property 'zone' missing in Queue2"), result.getDifferences());
+    }
+    
+    @Test
+    @DisplayName("Ignored properties are left out of the properties check")
+    public void testPropertiesIgnored() {
+        List<MQMessage> queue1 = propertyQueue("app-one");
+        List<MQMessage> queue2 = propertyQueue("app-two");
+        queue2.get(1).getProperties().put("region", "APAC");
+        
+        ComparisonPlan plan = ComparisonPlan.of(0L, ComparisonCheck.PROPERTIES)
+            .withPropertyFilter(PropertyFilter.parse("", "JMS*"));
+        ComparisonResult result = MessageComparator.compare(plan, queue1, queue2).get(ComparisonCheck.PROPERTIES);
+        assertEquals(List.of("Message 1 - Property 'region': Queue1=EMEA, Queue2=APAC"), result.getDifferences());
+    }
+    
+    @Test
+    @DisplayName("Only included properties are compared")
+    public void testPropertiesIncluded() {
+        List<MQMessage> queue1 = propertyQueue("app-one");
+        List<MQMessage> queue2 = propertyQueue("app-two");
+        queue1.get(0).getProperties().remove("region");
+        
+        ComparisonPlan plan = ComparisonPlan.of(0L, ComparisonCheck.PROPERTIES)
+            .withPropertyFilter(PropertyFilter.parse("token", ""));
+        assertTrue(MessageComparator.compare(plan, queue1, queue2).get(ComparisonCheck.PROPERTIES).isPassed());
+    }
+    
+    private static List<MQMessage> propertyQueue(String appId) {
+        List<MQMessage> messages = queue(3);
+        for (MQMessage msg : messages) {
+            msg.getProperties().put("JMSXAppID", appId);
+            msg.getProperties().put("region", "EMEA");
+            msg.getProperties().put("token", bytes("abc"));
+        }
+        return messages;
+    }
+    
+    @Test
+    @DisplayName("Key-aligned pairs compare clean where the positional comparison fails")
+    public void testKeyAlignedComparison() {
+        List<MQMessage> queue1 = queue(100);
+        List<MQMessage> queue2 = queue(100);
+        queue2.remove(10);
+        queue2.add(message(500, "{\"index\":500}", 2_000L));
+        
+        ComparisonPlan plan = ComparisonPlan.of(5000, ComparisonCheck.PAYLOAD, ComparisonCheck.PRIORITY);
+        assertFalse(MessageComparator.compare(plan, queue1, queue2).get(ComparisonCheck.PAYLOAD).isPassed());
+        
+        AlignmentResult alignment = MessageComparator.alignByKey(queue1, queue2, MessageKeyExtractor.correlationId());
+        MessageComparator.compareAligned(plan, queue1, queue2, alignment)
+            .forEach((check, result) -> assertTrue(result.isPassed(), check.name()));
+    }
+    
+    @Test
+    @DisplayName("Unmatched messages are reported per side")
+    public void testAlignmentReport() {
+        List<MQMessage> queue2 = queue(100);
+        queue2.remove(10);
+        queue2.add(message(500, "{\"index\":500}", 2_000L));
+        
+        ComparisonResult unmatched = MessageComparator.compareAlignment(
+            MessageComparator.alignByKey(queue(100), queue2, MessageKeyExtractor.correlationId()));
+        assertFalse(unmatched.isPassed());
+        assertEquals("Key alignment: 99 matched, 1 only in Queue1, 1 only in Queue2", unmatched.getMessage());
+        assertEquals(List.of("Message 10 - Only in Queue1", "Message 99 - Only in Queue2"), unmatched.getDifferences());
+    }
+    
+    @Test
+    @DisplayName("Payloads in different CCSIDs compare equal when they decode to the same text")
+    public void testCrossCcsidPayloads() {
+        MQMessage ebcdic = message(0, null, 1_000L);
+        ebcdic.setPayloadBytes(CCSID_TEXT.getBytes(Charset.forName("IBM037")), 37);
+        ComparisonPlan plan = ComparisonPlan.of(0, ComparisonCheck.PAYLOAD, ComparisonCheck.PAYLOAD_STRUCTURE,
+            ComparisonCheck.PAYLOAD_CHECKSUM);
+        
+        Map<ComparisonCheck, ComparisonResult> results =
+            MessageComparator.compare(plan, List.of(message(0, CCSID_TEXT, 1_000L)), List.of(ebcdic));
+        
+        assertTrue(results.get(ComparisonCheck.PAYLOAD).isPassed());
+        assertTrue(results.get(ComparisonCheck.PAYLOAD_STRUCTURE).isPassed());
+        assertTrue(results.get(ComparisonCheck.PAYLOAD_CHECKSUM).isPassed());
+    }
+    
+    @Test
+    @DisplayName("Payload length compares encoded bytes, not characters")
+    public void testPayloadLengthInBytes() {
+        MQMessage latin1 = message(0, null, 1_000L);
+        latin1.setPayloadBytes(CCSID_TEXT.getBytes(StandardCharsets.ISO_8859_1), 819);
+        ComparisonPlan plan = ComparisonPlan.of(0, ComparisonCheck.PAYLOAD, ComparisonCheck.PAYLOAD_LENGTH);
+        
+        Map<ComparisonCheck, ComparisonResult> results =
+            MessageComparator.compare(plan, List.of(message(0, CCSID_TEXT, 1_000L)), List.of(latin1));
+        
+        // "ë" is two bytes in UTF-8 but one in ISO-8859-1
+        assertTrue(results.get(ComparisonCheck.PAYLOAD).isPassed());
+        assertResult(false, "Payload length mismatch",
+            List.of("Message 0 - Queue1: 15 bytes, Queue2: 14 bytes"), results.get(ComparisonCheck.PAYLOAD_LENGTH));
+    }
+    
+    @Test
+    @DisplayName("Every checksum algorithm detects a changed payload")
+    public void testChecksumAlgorithms() {
+        List<MQMessage> queue1 = queue(20);
+        List<MQMessage> queue2 = queue(20);
+        queue2.set(5, message(5, "{\"index\":-5}", 1_005L));
+        
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            ComparisonResult result = MessageComparator.compare(
+                ComparisonPlan.of(0, ComparisonCheck.PAYLOAD_CHECKSUM).withChecksum(algorithm), queue1, queue2)
+                .get(ComparisonCheck.PAYLOAD_CHECKSUM);
+            assertFalse(result.isPassed(), algorithm.name());
+            assertEquals(1, result.getDifferences().size(), algorithm.name());
+        }
+    }
+    
+    private static void assertResult(boolean passed, String message, List<String> differences,
+                                     ComparisonResult... actual) {
+        for (ComparisonResult result : actual) {
+            assertEquals(passed, result.isPassed(), message);
+            assertEquals(message, result.getMessage());
+            assertEquals(differences, result.getDifferences(), message);
+        }
+    }
+}
\ No newline at end of file
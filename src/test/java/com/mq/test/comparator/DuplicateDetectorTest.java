@@ -0,0 +1,86 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DuplicateDetectorTest {
+    
+    private static MQMessage message(String payload, String correlationId) {
+        MQMessage msg = new MQMessage();
+        msg.setMessageId(String.format("%048X", payload.hashCode()));
+        msg.setCorrelationId(correlationId);
+        msg.setPayload(payload);
+        return msg;
+    }
+    
+    @Test
+    @DisplayName("Every duplicate group is reported with all of its positions")
+    public void testGroupsByPayload() {
+        List<MQMessage> messages = new ArrayList<>();
+        messages.add(message("A", "c0"));
+        messages.add(message("B", "c1"));
+        messages.add(message("A", "c2"));
+        messages.add(message("C", "c3"));
+        messages.add(message("B", "c4"));
+        messages.add(message("A", "c5"));
+        
+        List<int[]> groups = DuplicateDetector.findDuplicateGroups(messages, DuplicateKey.PAYLOAD);
+        
+        assertEquals(2, groups.size());
+        assertArrayEquals(new int[] { 0, 2, 5 }, groups.get(0));
+        assertArrayEquals(new int[] { 1, 4 }, groups.get(1));
+        
+        ComparisonResult result = MessageComparator.findDuplicateMessages(messages, "Q1");
+        assertFalse(result.isPassed());
+        assertEquals("Messages at positions 0, 2, 5 are duplicates", result.getDifferences().get(0));
+        assertEquals("Messages at positions 1 and 4 are duplicates", result.getDifferences().get(1));
+    }
+    
+    @Test
+    @DisplayName("Distinct payloads with equal hash codes are not duplicates")
+    public void testEqualHashCodesAreNotDuplicates() {
+        List<MQMessage> messages = new ArrayList<>();
+        // "Aa" and "BB" share String.hashCode()
+        messages.add(message("Aa", "c0"));
+        messages.add(message("BB", "c1"));
+        
+        assertTrue(DuplicateDetector.findDuplicateGroups(messages, DuplicateKey.PAYLOAD).isEmpty());
+        assertTrue(MessageComparator.findDuplicateMessages(messages, "Q1").isPassed());
+    }
+    
+    @Test
+    @DisplayName("Duplicates can be keyed on correlation ID")
+    public void testGroupsByCorrelationId() {
+        List<MQMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            messages.add(message("payload-" + i, "corr-" + (i % 5_000)));
+        }
+        
+        List<int[]> groups = DuplicateDetector.findDuplicateGroups(messages, DuplicateKey.CORRELATION_ID);
+        
+        assertEquals(5_000, groups.size());
+        assertArrayEquals(new int[] { 0, 5_000 }, groups.get(0));
+        assertTrue(DuplicateDetector.findDuplicateGroups(messages, DuplicateKey.PAYLOAD).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Duplicate groups beyond the configured cap are counted but not recorded")
+    public void testDuplicateCap() {
+        List<MQMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(message("payload-" + i, "c" + i));
+            messages.add(message("payload-" + i, "d" + i));
+        }
+        
+        ComparisonResult result = MessageComparator.findDuplicateMessages(messages, "Q1", DuplicateKey.PAYLOAD, 3);
+        assertEquals(3, result.getDifferences().size());
+        assertEquals(10, result.getTotalDifferences());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.mq.test.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageAlignerTest {
+    
+    private static List<MQMessage> missingTenth() {
+        List<MQMessage> messages = queue(100);
+        messages.remove(10);
+        messages.add(message(500, "{\"index\":500}", 2_000L));
+        return messages;
+    }
+    
+    @Test
+    @DisplayName("A missing message is isolated instead of shifting every later position")
+    public void testMissingMessage() {
+        AlignmentResult alignment =
+            MessageAligner.alignByKey(queue(100), missingTenth(), MessageKeyExtractor.correlationId());
+        
+        assertEquals(99, alignment.getMatchedCount());
+        assertArrayEquals(new int[] { 10 }, alignment.getQueue1Only());
+        assertArrayEquals(new int[] { 99 }, alignment.getQueue2Only());
+        assertFalse(alignment.isFullyMatched());
+        assertEquals(11, alignment.getQueue1Position(10));
+        assertEquals(10, alignment.getQueue2Position(10));
+    }
+    
+    @Test
+    @DisplayName("A JSON field key aligns the same messages as the correlation ID")
+    public void testJsonFieldKey() {
+        AlignmentResult alignment =
+            MessageAligner.alignByKey(queue(100), missingTenth(), MessageKeyExtractor.jsonField("index"));
+        
+        assertEquals(99, alignment.getMatchedCount());
+        assertArrayEquals(new int[] { 10 }, alignment.getQueue1Only());
+        assertArrayEquals(new int[] { 99 }, alignment.getQueue2Only());
+    }
+    
+    @Test
+    @DisplayName("Repeated keys pair the n-th occurrence in Queue1 with the n-th in Queue2")
+    public void testRepeatedKeys() {
+        List<MQMessage> queue1 = List.of(message(0, "A", 0L), message(1, "A", 0L), message(2, "B", 0L));
+        List<MQMessage> queue2 = List.of(message(0, "A", 0L), message(1, "B", 0L), message(2, "A", 0L));
+        
+        AlignmentResult alignment = MessageAligner.alignByKey(queue1, queue2, MessageKeyExtractor.payloadPrefix(1));
+        
+        assertTrue(alignment.isFullyMatched());
+        assertEquals(0, alignment.getQueue2Position(0));
+        assertEquals(2, alignment.getQueue2Position(1));
+        assertEquals(1, alignment.getQueue2Position(2));
+    }
+    
+    @Test
+    @DisplayName("Messages without a key are left unmatched on both sides")
+    public void testMissingKeys() {
+        AlignmentResult alignment = MessageAligner.alignByKey(queue(3), queue(3), MessageKeyExtractor.payloadPrefix(50));
+        
+        assertEquals(0, alignment.getMatchedCount());
+        assertArrayEquals(new int[] { 0, 1, 2 }, alignment.getQueue1Only());
+        assertArrayEquals(new int[] { 0, 1, 2 }, alignment.getQueue2Only());
+    }
+}
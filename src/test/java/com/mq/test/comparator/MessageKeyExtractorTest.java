@@ -0,0 +1,49 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.MQId;
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.mq.test.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageKeyExtractorTest {
+    
+    @Test
+    @DisplayName("POSITION and a blank spec mean positional comparison")
+    public void testPositionSpec() {
+        assertNull(MessageKeyExtractor.fromSpec("POSITION"));
+        assertNull(MessageKeyExtractor.fromSpec(" "));
+        assertNull(MessageKeyExtractor.fromSpec(null));
+    }
+    
+    @Test
+    @DisplayName("Specs are case-insensitive and take their argument after the colon")
+    public void testKeySpecs() {
+        MQMessage msg = message(7, "ORDPROC10162026120000042{\"orderId\":\"A-7\"}", 1_000L);
+        
+        assertEquals(MQId.parse(String.format("%048X", 7)), MessageKeyExtractor.fromSpec("correlation_id").keyOf(msg));
+        assertEquals(MQId.parse(String.format("%048X", 7)), MessageKeyExtractor.fromSpec("MESSAGE_ID").keyOf(msg));
+        assertEquals("ORDPROC10162026120000042", MessageKeyExtractor.fromSpec("GLOBAL_ID").keyOf(msg));
+        assertEquals("ORD", MessageKeyExtractor.fromSpec("PREFIX: 3").keyOf(msg));
+        assertEquals("A-7", MessageKeyExtractor.fromSpec("JSON:orderId").keyOf(msg));
+    }
+    
+    @Test
+    @DisplayName("Text IDs that are not 48 hex digits are keyed on their text")
+    public void testTextIds() {
+        MQMessage msg = message(0, "a", 1_000L);
+        msg.setCorrelationId("ORDER-1");
+        
+        assertEquals("ORDER-1", MessageKeyExtractor.correlationId().keyOf(msg));
+    }
+    
+    @Test
+    @DisplayName("Specs missing their argument or of an unknown kind are rejected")
+    public void testInvalidSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> MessageKeyExtractor.fromSpec("PREFIX"));
+        assertThrows(IllegalArgumentException.class, () -> MessageKeyExtractor.fromSpec("JSON:"));
+        assertThrows(IllegalArgumentException.class, () -> MessageKeyExtractor.fromSpec("HEADER"));
+    }
+}
\ No newline at end of file
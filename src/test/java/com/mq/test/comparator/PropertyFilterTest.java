@@ -0,0 +1,90 @@
+package com.mq.test.comparator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertyFilterTest {
+    
+    @Test
+    @DisplayName("Blank or whitespace rule lists compare every property")
+    public void testBlankRules() {
+        assertSame(PropertyFilter.ALL, PropertyFilter.parse(null, null));
+        assertSame(PropertyFilter.ALL, PropertyFilter.parse("", "  "));
+        assertSame(PropertyFilter.ALL, PropertyFilter.parse(" , ,", ","));
+        assertTrue(PropertyFilter.ALL.accepts("anything"));
+    }
+    
+    @Test
+    @DisplayName("Rules are trimmed and empty entries are dropped")
+    public void testRuleParsing() {
+        PropertyFilter filter = PropertyFilter.parse(" region , ,JMS* ", "JMSXAppID,  ");
+        
+        assertEquals(List.of("region", "JMS*"), filter.getInclude());
+        assertEquals(List.of("JMSXAppID"), filter.getIgnore());
+        assertFalse(filter.isAll());
+    }
+    
+    @Test
+    @DisplayName("A rule without a trailing * matches the exact name only")
+    public void testExactRule() {
+        PropertyFilter filter = PropertyFilter.parse("region", "");
+        
+        assertTrue(filter.accepts("region"));
+        assertFalse(filter.accepts("regions"));
+        assertFalse(filter.accepts("Region"));
+        assertFalse(filter.accepts("reg"));
+    }
+    
+    @Test
+    @DisplayName("A rule ending in * matches every name with that prefix, including the prefix itself")
+    public void testPrefixRule() {
+        PropertyFilter filter = PropertyFilter.parse("region*", "");
+        
+        assertTrue(filter.accepts("region"));
+        assertTrue(filter.accepts("regions"));
+        assertFalse(filter.accepts("subregion"));
+    }
+    
+    @Test
+    @DisplayName("A bare * includes or ignores every property")
+    public void testBareWildcard() {
+        PropertyFilter includeAll = PropertyFilter.parse("*", "");
+        assertTrue(includeAll.accepts("JMSXAppID"));
+        assertTrue(includeAll.accepts(""));
+        
+        PropertyFilter ignoreAll = PropertyFilter.parse("", "*");
+        assertFalse(ignoreAll.accepts("JMSXAppID"));
+        assertFalse(ignoreAll.accepts("region"));
+    }
+    
+    @Test
+    @DisplayName("Ignore rules win where they overlap include rules, whether prefix or exact")
+    public void testOverlappingRules() {
+        PropertyFilter prefixes = PropertyFilter.parse("JMS*", "JMSX*");
+        assertTrue(prefixes.accepts("JMSType"));
+        assertFalse(prefixes.accepts("JMSXAppID"));
+        assertFalse(prefixes.accepts("region"));
+        
+        PropertyFilter exactIgnore = PropertyFilter.parse("JMS*", "JMSXAppID");
+        assertFalse(exactIgnore.accepts("JMSXAppID"));
+        assertTrue(exactIgnore.accepts("JMSXGroupID"));
+        
+        PropertyFilter exactInclude = PropertyFilter.parse("JMSXAppID", "JMS*");
+        assertFalse(exactInclude.accepts("JMSXAppID"));
+    }
+    
+    @Test
+    @DisplayName("Only ignore rules compare every other property")
+    public void testIgnoreOnly() {
+        PropertyFilter filter = PropertyFilter.parse("", "token");
+        
+        assertTrue(filter.accepts("region"));
+        assertFalse(filter.accepts("token"));
+        // Decisions are cached per name; asking again gives the same answer
+        assertFalse(filter.accepts("token"));
+    }
+}
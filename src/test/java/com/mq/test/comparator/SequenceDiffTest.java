@@ -0,0 +1,112 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SequenceDiffTest {
+    
+    @Test
+    @DisplayName("Diff finds a longest common subsequence on random inputs")
+    public void testMatchesLongestCommonSubsequence() {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            long[] a = randomSequence(random, random.nextInt(60));
+            long[] b = randomSequence(random, random.nextInt(60));
+            
+            AlignmentResult result = SequenceDiff.diff(a, b, SequenceDiff.DEFAULT_MAX_EDITS);
+            
+            assertValidScript(a, b, result);
+            assertEquals(lcsLength(a, b), result.getMatchedCount(), "round " + round);
+        }
+    }
+    
+    @Test
+    @DisplayName("Exhausted edit budget still yields a valid script")
+    public void testEditBudgetFallback() {
+        Random random = new Random(7);
+        long[] a = randomSequence(random, 400);
+        long[] b = randomSequence(random, 400);
+        
+        AlignmentResult result = SequenceDiff.diff(a, b, 3);
+        
+        assertValidScript(a, b, result);
+        assertTrue(result.getMatchedCount() <= lcsLength(a, b));
+    }
+    
+    @Test
+    @DisplayName("Inserted and deleted messages are isolated and reported as runs")
+    public void testInsertAndDeleteReporting() {
+        List<MQMessage> queue1 = new ArrayList<>();
+        List<MQMessage> queue2 = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            queue1.add(message("msg-" + i));
+            if (i < 17 || i > 19) {
+                queue2.add(message("msg-" + i));
+            }
+            if (i == 600) {
+                queue2.add(message("extra"));
+            }
+        }
+        
+        AlignmentResult alignment = MessageComparator.alignBySequenceDiff(queue1, queue2, SequenceDiff.DEFAULT_MAX_EDITS);
+        
+        assertEquals(997, alignment.getMatchedCount());
+        assertArrayEquals(new int[] { 17, 18, 19 }, alignment.getQueue1Only());
+        assertArrayEquals(new int[] { 598 }, alignment.getQueue2Only());
+        MessageComparator.compareAligned(ComparisonPlan.of(0, ComparisonCheck.PAYLOAD), queue1, queue2, alignment)
+            .forEach((check, result) -> assertTrue(result.isPassed(), check.name()));
+        
+        ComparisonResult report = MessageComparator.compareAlignment(alignment);
+        assertFalse(report.isPassed());
+        assertEquals("Messages 17-19 deleted from Queue1", report.getDifferences().get(0));
+        assertEquals("Message 598 inserted in Queue2", report.getDifferences().get(1));
+    }
+    
+    private static MQMessage message(String payload) {
+        MQMessage msg = new MQMessage();
+        msg.setPayload(payload);
+        return msg;
+    }
+    
+    private static long[] randomSequence(Random random, int length) {
+        long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt(4);
+        }
+        return values;
+    }
+    
+    private static void assertValidScript(long[] a, long[] b, AlignmentResult result) {
+        assertEquals(a.length, result.getMatchedCount() + result.getQueue1Only().length);
+        assertEquals(b.length, result.getMatchedCount() + result.getQueue2Only().length);
+        for (int pair = 0; pair < result.getMatchedCount(); pair++) {
+            int i = result.getQueue1Position(pair);
+            int j = result.getQueue2Position(pair);
+            assertEquals(a[i], b[j]);
+            if (pair > 0) {
+                assertTrue(i > result.getQueue1Position(pair - 1));
+                assertTrue(j > result.getQueue2Position(pair - 1));
+            }
+        }
+    }
+    
+    private static int lcsLength(long[] a, long[] b) {
+        int[][] table = new int[a.length + 1][b.length + 1];
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                table[i][j] = a[i - 1] == b[j - 1]
+                    ? table[i - 1][j - 1] + 1
+                    : Math.max(table[i - 1][j], table[i][j - 1]);
+            }
+        }
+        return table[a.length][b.length];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.mq.test.comparator;
+
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.mq.test.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamComparisonTest {
+    
+    @Test
+    @DisplayName("Streamed results match the list comparison")
+    public void testMatchesListComparison() {
+        List<MQMessage> queue1 = queue(300);
+        List<MQMessage> queue2 = queue(300);
+        queue2.set(42, message(42, "changed", 1_042L));
+        ComparisonPlan plan = ComparisonPlan.all(5000);
+        
+        StreamComparison streamed = MessageComparator.compareStreams(plan, queue1.iterator(), queue2.iterator());
+        
+        Map<ComparisonCheck, ComparisonResult> listed = MessageComparator.compare(plan, queue1, queue2);
+        assertEquals(listed.keySet(), streamed.getResults().keySet());
+        listed.forEach((check, result) -> assertSameResult(result, streamed.getResults().get(check)));
+    }
+    
+    @Test
+    @DisplayName("The longer stream is drained and counted")
+    public void testLongerStream() {
+        List<MQMessage> queue1 = queue(300);
+        List<MQMessage> queue2 = queue(305);
+        
+        StreamComparison streamed = MessageComparator.compareStreams(ComparisonPlan.all(5000),
+            queue1.iterator(), queue2.iterator());
+        
+        assertEquals(300, streamed.getQueue1Count());
+        assertEquals(305, streamed.getQueue2Count());
+        assertFalse(streamed.compareMessageCount().isPassed());
+        assertSameResult(MessageComparator.compareMessageCount(queue1, queue2), streamed.compareMessageCount());
+    }
+    
+    @Test
+    @DisplayName("Two empty streams have equal counts")
+    public void testEmptyStreams() {
+        List<MQMessage> empty = Collections.emptyList();
+        
+        StreamComparison streamed = MessageComparator.compareStreams(ComparisonPlan.all(5000),
+            empty.iterator(), empty.iterator());
+        
+        assertEquals(0, streamed.getQueue1Count());
+        assertEquals(0, streamed.getQueue2Count());
+        assertTrue(streamed.compareMessageCount().isPassed());
+    }
+    
+    @Test
+    @DisplayName("Fingerprints are equal for equal content and depend on the order")
+    public void testFingerprints() {
+        List<MQMessage> queue1 = queue(20);
+        List<MQMessage> queue2 = queue(20);
+        StreamComparison same = MessageComparator.compareStreams(ComparisonPlan.all(5000),
+            queue1.iterator(), queue2.iterator());
+        assertEquals(same.getQueue1Fingerprint(), same.getQueue2Fingerprint());
+        
+        Collections.swap(queue2, 3, 4);
+        StreamComparison swapped = MessageComparator.compareStreams(ComparisonPlan.all(5000),
+            queue1.iterator(), queue2.iterator());
+        assertEquals(same.getQueue1Fingerprint(), swapped.getQueue1Fingerprint());
+        assertNotEquals(swapped.getQueue1Fingerprint(), swapped.getQueue2Fingerprint());
+    }
+    
+    @Test
+    @DisplayName("A failed read leaves a checkpoint at the last compared pair")
+    public void testCheckpointOnFailure(@TempDir Path dir) throws Exception {
+        List<MQMessage> queue1 = queue(250);
+        List<MQMessage> queue2 = queue(260);
+        ComparisonPlan plan = ComparisonPlan.all(5000);
+        CheckpointStore checkpoints = new CheckpointStore(dir.resolve("run.checkpoint"), 50, "Q1", "Q2");
+        
+        assertThrows(IllegalStateException.class, () -> MessageComparator.compareStreams(plan,
+            queue1.iterator(), failingAfter(queue2, 130), checkpoints, null));
+        
+        ComparisonCheckpoint checkpoint = checkpoints.load(plan.getMaxDifferences());
+        assertEquals(130, checkpoint.getCompared());
+        assertEquals(queue1.get(129).getMessageId(), checkpoint.getLastMessageId1());
+        assertEquals(queue2.get(129).getMessageId(), checkpoint.getLastMessageId2());
+    }
+    
+    @Test
+    @DisplayName("A resumed comparison ends with the results and fingerprints of an uninterrupted one")
+    public void testResumeFromCheckpoint(@TempDir Path dir) throws Exception {
+        List<MQMessage> queue1 = queue(250);
+        List<MQMessage> queue2 = queue(260);
+        for (int i = 7; i < 250; i += 40) {
+            queue2.get(i).setPriority(1);
+        }
+        queue2.get(100).setTimestamp(0L);
+        ComparisonPlan plan = ComparisonPlan.all(5000);
+        StreamComparison uninterrupted = MessageComparator.compareStreams(plan, queue1.iterator(), queue2.iterator());
+        CheckpointStore checkpoints = new CheckpointStore(dir.resolve("run.checkpoint"), 50, "Q1", "Q2");
+        assertThrows(IllegalStateException.class, () -> MessageComparator.compareStreams(plan,
+            queue1.iterator(), failingAfter(queue2, 130), checkpoints, null));
+        
+        StreamComparison resumed = MessageComparator.compareStreams(plan, queue1.subList(130, 250).iterator(),
+            queue2.subList(130, 260).iterator(), checkpoints, checkpoints.load(plan.getMaxDifferences()));
+        
+        uninterrupted.getResults().forEach((check, result) -> {
+            assertSameResult(result, resumed.getResults().get(check));
+            assertEquals(result.getTotalDifferences(), resumed.getResults().get(check).getTotalDifferences());
+        });
+        assertEquals(250, resumed.getQueue1Count());
+        assertEquals(260, resumed.getQueue2Count());
+        assertEquals(uninterrupted.getQueue1Fingerprint(), resumed.getQueue1Fingerprint());
+        assertEquals(uninterrupted.getQueue2Fingerprint(), resumed.getQueue2Fingerprint());
+    }
+    
+    @Test
+    @DisplayName("The checkpoint is deleted once both streams are exhausted")
+    public void testCheckpointDeletedOnCompletion(@TempDir Path dir) {
+        CheckpointStore checkpoints = new CheckpointStore(dir.resolve("run.checkpoint"), 50, "Q1", "Q2");
+        
+        MessageComparator.compareStreams(ComparisonPlan.all(5000), queue(120).iterator(), queue(120).iterator(),
+            checkpoints, null);
+        
+        assertFalse(Files.exists(checkpoints.getPath()));
+    }
+    
+    /**
+     * Iterator over the messages whose read after the first {@code count} fails like a dropped channel
+     */
+    private static Iterator<MQMessage> failingAfter(List<MQMessage> messages, int count) {
+        return new Iterator<MQMessage>() {
+            private int read;
+            
+            @Override
+            public boolean hasNext() {
+                if (read == count) {
+                    throw new IllegalStateException("Channel dropped");
+                }
+                return read < messages.size();
+            }
+            
+            @Override
+            public MQMessage next() {
+                return messages.get(read++);
+            }
+        };
+    }
+}
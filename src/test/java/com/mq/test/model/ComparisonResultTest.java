@@ -0,0 +1,104 @@
+package com.mq.test.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComparisonResultTest {
+    
+    private static ComparisonResult result(int maxDifferences, int from, int to) {
+        ComparisonResult result = new ComparisonResult(true, "Priority comparison", maxDifferences);
+        for (int i = from; i < to; i++) {
+            result.markFailed("Priority mismatch found");
+            result.addDifference(new Difference(i, "priority", 5, i, "Message %d - Queue1: 5, Queue2: %d", i, i));
+        }
+        return result;
+    }
+    
+    @Test
+    @DisplayName("Difference records are capped while totals and per-field counts stay exact")
+    public void testBoundedDifferences() {
+        ComparisonResult result = new ComparisonResult(false, "Mismatch", 3);
+        for (int i = 0; i < 10; i++) {
+            result.addDifference(new Difference(i, i % 2 == 0 ? "priority" : "format", i, -i,
+                "Message %d - Queue1: %d, Queue2: %d", i, i, -i));
+        }
+        result.addDifference("Message count mismatch");
+        
+        assertEquals(11, result.getTotalDifferences());
+        assertEquals(8, result.getSuppressedDifferences());
+        assertEquals(List.of("Message 0 - Queue1: 0, Queue2: 0", "Message 1 - Queue1: 1, Queue2: -1",
+            "Message 2 - Queue1: 2, Queue2: -2"), result.getDifferences());
+        assertEquals(Map.of("priority", 5L, "format", 5L), result.getFieldCounts());
+    }
+    
+    @Test
+    @DisplayName("Structured records keep the index, field and both values")
+    public void testDifferenceRecords() {
+        ComparisonResult result = result(10, 0, 3);
+        
+        Difference record = result.getDifferenceRecords().get(1);
+        assertEquals(1, record.getIndex());
+        assertEquals("priority", record.getField());
+        assertEquals(5, record.getLeft());
+        assertEquals(1, record.getRight());
+        assertEquals("Message 1 - Queue1: 5, Queue2: 1", record.toString());
+    }
+    
+    @Test
+    @DisplayName("A zero cap records nothing but still counts")
+    public void testZeroCap() {
+        ComparisonResult result = result(0, 0, 4);
+        
+        assertTrue(result.getDifferences().isEmpty());
+        assertEquals(4, result.getTotalDifferences());
+        assertEquals(4, result.getSuppressedDifferences());
+    }
+    
+    @Test
+    @DisplayName("Merging appends records up to the cap and adds the counts")
+    public void testMerge() {
+        ComparisonResult merged = result(4, 0, 3);
+        merged.merge(result(4, 3, 6));
+        
+        assertEquals(List.of("Message 0 - Queue1: 5, Queue2: 0", "Message 1 - Queue1: 5, Queue2: 1",
+            "Message 2 - Queue1: 5, Queue2: 2", "Message 3 - Queue1: 5, Queue2: 3"), merged.getDifferences());
+        assertEquals(6, merged.getTotalDifferences());
+        assertEquals(2, merged.getSuppressedDifferences());
+        assertEquals(Map.of("priority", 6L), merged.getFieldCounts());
+    }
+    
+    @Test
+    @DisplayName("A merged result fails if either part failed")
+    public void testMergeOutcome() {
+        ComparisonResult passed = result(10, 0, 0);
+        passed.merge(result(10, 0, 0));
+        assertTrue(passed.isPassed());
+        assertEquals("Priority comparison", passed.getMessage());
+        
+        passed.merge(result(10, 7, 8));
+        assertFalse(passed.isPassed());
+        assertEquals("Priority mismatch found", passed.getMessage());
+        
+        ComparisonResult failed = result(10, 0, 1);
+        failed.merge(result(10, 0, 0));
+        assertFalse(failed.isPassed());
+    }
+    
+    @Test
+    @DisplayName("Restored counts replace the counters and keep counting from there")
+    public void testRestoreCounts() {
+        ComparisonResult result = result(10, 0, 2);
+        result.restoreCounts(40, Map.of("priority", 30L, "format", 10L));
+        result.addDifference(new Difference(50, "format", "A", "B", "Message %d - format", 50));
+        
+        assertEquals(41, result.getTotalDifferences());
+        assertEquals(Map.of("priority", 30L, "format", 11L), result.getFieldCounts());
+        assertEquals(3, result.getDifferences().size());
+        assertEquals(38, result.getSuppressedDifferences());
+    }
+}
@@ -0,0 +1,57 @@
+package com.mq.test.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for binary MQ identifiers and their lazy hex form
+ */
+public class MQIdTest {
+    
+    @Test
+    @DisplayName("Hex form matches the per-byte rendering and parses back")
+    public void testHexRoundTrip() {
+        Random random = new Random(17);
+        for (int n = 0; n < 100; n++) {
+            byte[] bytes = new byte[MQId.LENGTH];
+            random.nextBytes(bytes);
+            StringBuilder expected = new StringBuilder();
+            for (byte b : bytes) {
+                expected.append(String.format("%02X", b));
+            }
+            
+            MQId id = MQId.of(bytes);
+            assertEquals(expected.toString(), id.toHex());
+            assertEquals(id, MQId.parse(expected.toString()));
+            assertEquals(id, MQId.parse(expected.toString().toLowerCase()));
+            assertEquals(id.hashCode(), MQId.parse(expected.toString()).hashCode());
+            assertArrayEquals(bytes, id.toBytes());
+        }
+        assertNull(MQId.parse("corr-1"));
+        assertNull(MQId.parse(String.format("%047X", 1) + "G"));
+        assertEquals(MQId.of(new byte[] { 1, 2 }), MQId.parse("0102" + String.format("%044d", 0)));
+    }
+    
+    @Test
+    @DisplayName("Messages compare IDs set as bytes and as text alike")
+    public void testMessageIdEquality() {
+        byte[] bytes = new byte[MQId.LENGTH];
+        bytes[23] = 42;
+        MQMessage binary = new MQMessage();
+        binary.setMessageId(MQId.of(bytes));
+        MQMessage text = new MQMessage();
+        text.setMessageId(String.format("%048X", 42));
+        MQMessage other = new MQMessage();
+        other.setMessageId("not-hex");
+        
+        assertTrue(binary.sameMessageId(text));
+        assertFalse(binary.sameMessageId(other));
+        assertEquals(String.format("%048X", 42), binary.getMessageId());
+        assertNull(other.getMessageIdValue());
+        assertEquals("not-hex", other.getMessageId());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.mq.test.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MQMessageTest {
+    
+    private static final String TEXT = "{\"name\":\"Zoë\"}";
+    
+    @Test
+    @DisplayName("Raw bytes are decoded with the message CCSID")
+    public void testDecodeWithCcsid() {
+        byte[] ebcdic = TEXT.getBytes(Charset.forName("IBM037"));
+        MQMessage message = new MQMessage();
+        message.setPayloadBytes(ebcdic, 37);
+        
+        assertEquals(TEXT, message.getPayload());
+        assertSame(ebcdic, message.getPayloadBytes());
+        assertEquals(37, message.getCharacterSet());
+        assertEquals(ebcdic.length, message.getPayloadLength());
+    }
+    
+    @Test
+    @DisplayName("A text payload is encoded as UTF-8")
+    public void testTextPayload() {
+        MQMessage message = new MQMessage();
+        message.setPayloadBytes(TEXT.getBytes(StandardCharsets.ISO_8859_1), 819);
+        message.setPayload(TEXT);
+        
+        assertEquals(CcsidCharsets.UTF_8, message.getCharacterSet());
+        assertArrayEquals(TEXT.getBytes(StandardCharsets.UTF_8), message.getPayloadBytes());
+        assertEquals(15, message.getPayloadLength());
+    }
+    
+    @Test
+    @DisplayName("The payload buffer is a read-only view of the bytes")
+    public void testPayloadBuffer() {
+        MQMessage message = new MQMessage();
+        message.setPayload(TEXT);
+        
+        assertTrue(message.getPayloadBuffer().isReadOnly());
+        assertEquals(message.getPayloadLength(), message.getPayloadBuffer().remaining());
+    }
+    
+    @Test
+    @DisplayName("A message without a payload has no bytes and zero length")
+    public void testNoPayload() {
+        MQMessage message = new MQMessage();
+        
+        assertNull(message.getPayload());
+        assertNull(message.getPayloadBytes());
+        assertNull(message.getPayloadBuffer());
+        assertEquals(0, message.getPayloadLength());
+    }
+}
\ No newline at end of file
@@ -4,16 +4,16 @@ import com.ibm.mq.MQException;
 import com.ibm.mq.MQMessage;
 import com.ibm.mq.MQPutMessageOptions;
 import com.ibm.mq.MQQueue;
-import com.ibm.mq.MQQueueManager;
 import com.ibm.mq.constants.MQConstants;
 import com.ibm.mq.pcf.PCFException;
 import com.ibm.mq.pcf.PCFMessage;
 import com.ibm.mq.pcf.PCFMessageAgent;
 import com.mq.test.config.MQConnectionConfig;
+import com.mq.test.util.MQConnectionPool;
+import com.mq.test.util.PooledMQConnection;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Hashtable;
 import java.util.UUID;
 
 /**
@@ -84,33 +84,25 @@ public final class MQQueueSetup {
         }
     }
 
-    /** Internal admin/helper (PCF + basic put) */
+    /** Internal admin/helper (PCF + basic put) over a pooled connection */
     static final class MQAdmin implements AutoCloseable {
-        private final MQQueueManager qmgr;
+        private final PooledMQConnection connection;
         private final PCFMessageAgent pcf;
 
-        private MQAdmin(MQQueueManager qmgr) throws MQException {
-            this.qmgr = qmgr;
-            this.pcf = new PCFMessageAgent(qmgr);
+        private MQAdmin(PooledMQConnection connection) throws MQException {
+            this.connection = connection;
+            this.pcf = new PCFMessageAgent(connection.getQueueManager());
         }
 
         static MQAdmin connect(MQConnectionConfig cfg) throws MQException {
-            Hashtable<String, Object> props = new Hashtable<>();
-            props.put(MQConstants.HOST_NAME_PROPERTY, cfg.getHost());
-            props.put(MQConstants.PORT_PROPERTY, cfg.getPort());
-            props.put(MQConstants.CHANNEL_PROPERTY, cfg.getChannel());
-            props.put(MQConstants.TRANSPORT_PROPERTY, MQConstants.TRANSPORT_MQSERIES_CLIENT);
-
-            if (cfg.getUsername() != null && !cfg.getUsername().isEmpty()) {
-                props.put(MQConstants.USER_ID_PROPERTY, cfg.getUsername());
-            }
-            if (cfg.getPassword() != null && !cfg.getPassword().isEmpty()) {
-                props.put(MQConstants.PASSWORD_PROPERTY, cfg.getPassword());
-                props.put(MQConstants.USE_MQCSP_AUTHENTICATION_PROPERTY, true);
+            PooledMQConnection connection = MQConnectionPool.getDefault().borrow(cfg);
+            try {
+                return new MQAdmin(connection);
+            } catch (MQException | RuntimeException e) {
+                connection.invalidate();
+                connection.close();
+                throw e;
             }
-
-            MQQueueManager qm = new MQQueueManager(cfg.getQueueManager(), props);
-            return new MQAdmin(qm);
         }
 
         void ensureLocalQueue(String qName, int maxDepth) throws Exception {
@@ -155,17 +147,21 @@ public final class MQQueueSetup {
         }
 
         void clearQueue(String qName) throws Exception {
+            // CLEAR Q fails with MQRC_OBJECT_IN_USE while pooled handles keep the queue open
+            connection.closeQueue(qName);
+            MQConnectionPool.getDefault().closeQueueHandles(connection.getConfig(), qName);
             PCFMessage cmd = new PCFMessage(MQConstants.MQCMD_CLEAR_Q);
             cmd.addParameter(MQConstants.MQCA_Q_NAME, qName);
             pcf.send(cmd);
         }
 
         void put(String qName, MQMessage msg) throws Exception {
-            MQQueue q = qmgr.accessQueue(qName, MQConstants.MQOO_OUTPUT);
+            MQQueue q = connection.accessQueue(qName, MQConstants.MQOO_OUTPUT);
             try {
                 q.put(msg, new MQPutMessageOptions());
-            } finally {
-                q.close();
+            } catch (MQException mqe) {
+                connection.checkFailure(mqe);
+                throw mqe;
             }
         }
 
@@ -199,8 +195,9 @@ public final class MQQueueSetup {
 
         @Override
         public void close() {
+            // The agent borrowed the queue manager, so this only closes its admin queues
             try { if (pcf != null) pcf.disconnect(); } catch (Exception ignored) {}
-            try { if (qmgr != null) qmgr.disconnect(); } catch (Exception ignored) {}
+            connection.close();
         }
     }
 }
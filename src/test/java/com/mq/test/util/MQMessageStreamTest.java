@@ -0,0 +1,76 @@
+package com.mq.test.util;
+
+import com.ibm.mq.constants.MQConstants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MQMessageStreamTest {
+    
+    @Test
+    @DisplayName("High-throughput browse re-reads truncated messages under the cursor without read-ahead")
+    public void testHighThroughputBrowseOptions() {
+        ReadOptions options = ReadOptions.highThroughputBrowse();
+        assertFalse(options.isReadAhead());
+        
+        int first = MQMessageStream.firstGetOptions(options);
+        int next = MQMessageStream.nextGetOptions(options);
+        int retry = MQMessageStream.retryGetOptions(options);
+        assertEquals(MQConstants.MQGMO_BROWSE_FIRST, first & MQConstants.MQGMO_BROWSE_FIRST);
+        assertEquals(MQConstants.MQGMO_BROWSE_NEXT, next & MQConstants.MQGMO_BROWSE_NEXT);
+        assertEquals(MQConstants.MQGMO_BROWSE_MSG_UNDER_CURSOR, retry & MQConstants.MQGMO_BROWSE_MSG_UNDER_CURSOR);
+        for (int getOptions : new int[] {first, next, retry}) {
+            assertNotEquals(0, getOptions & MQConstants.MQGMO_ACCEPT_TRUNCATED_MSG);
+            assertEquals(0, getOptions & MQConstants.MQGMO_SYNCPOINT);
+        }
+    }
+    
+    @Test
+    @DisplayName("A read-ahead stream only ever moves from BROWSE_FIRST to BROWSE_NEXT")
+    public void testReadAheadOptionsNeverChange() {
+        int checked = 0;
+        for (boolean browse : new boolean[] {true, false}) {
+            for (int batchSize : new int[] {0, 100}) {
+                for (int bufferSize : new int[] {0, ReadOptions.DEFAULT_BUFFER_SIZE}) {
+                    ReadOptions options;
+                    try {
+                        options = new ReadOptions(browse, batchSize, true, bufferSize);
+                    } catch (IllegalArgumentException e) {
+                        // Combinations that would change options on a read-ahead handle are refused
+                        assertTrue(!browse && batchSize > 0 || browse && bufferSize > 0, e.getMessage());
+                        continue;
+                    }
+                    int first = MQMessageStream.firstGetOptions(options) & ~MQConstants.MQGMO_BROWSE_FIRST;
+                    int next = MQMessageStream.nextGetOptions(options) & ~MQConstants.MQGMO_BROWSE_NEXT;
+                    assertEquals(first, next);
+                    if (bufferSize > 0) {
+                        assertEquals(MQMessageStream.nextGetOptions(options), MQMessageStream.retryGetOptions(options));
+                    }
+                    assertEquals(0, next & MQConstants.MQGMO_SYNCPOINT);
+                    checked++;
+                }
+            }
+        }
+        assertEquals(4, checked);
+    }
+    
+    @Test
+    @DisplayName("Destructive batches run under syncpoint and never accept truncation")
+    public void testDestructiveOptions() {
+        ReadOptions options = new ReadOptions(false, 100, false, ReadOptions.DEFAULT_BUFFER_SIZE);
+        int next = MQMessageStream.nextGetOptions(options);
+        assertEquals(MQMessageStream.firstGetOptions(options), next);
+        assertEquals(next, MQMessageStream.retryGetOptions(options));
+        assertEquals(MQConstants.MQGMO_SYNCPOINT, next & MQConstants.MQGMO_SYNCPOINT);
+        assertEquals(0, next & MQConstants.MQGMO_ACCEPT_TRUNCATED_MSG);
+    }
+    
+    @Test
+    @DisplayName("Resuming a read-ahead browse is refused before connecting")
+    public void testResumeWithReadAhead() {
+        ReadOptions readAhead = new ReadOptions(true, 0, true);
+        assertThrows(IllegalArgumentException.class,
+            () -> MQMessageReader.openStream(null, "Q1", 10, readAhead, String.format("%048X", 1)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.mq.test.util;
+
+import com.mq.test.comparator.ComparisonCheck;
+import com.mq.test.comparator.ComparisonPlan;
+import com.mq.test.comparator.MessageComparator;
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.mq.test.TestFixtures.message;
+import static com.mq.test.TestFixtures.queue;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageColumnsTest {
+    
+    @Test
+    @DisplayName("Messages rebuilt from columns match the originals")
+    public void testRoundTrip() {
+        List<MQMessage> messages = queue(100, "MQSTR   ", "MQHRF2  ");
+        messages.get(7).setPayloadBytes("Zoë".getBytes(Charset.forName("IBM037")), 37);
+        messages.get(7).getProperties().put("region", "EMEA");
+        // Larger than the first payload chunk
+        byte[] large = new byte[100_000];
+        Arrays.fill(large, (byte) 'x');
+        messages.get(50).setPayloadBytes(large, 1208);
+        
+        try (MessageColumns columns = MessageColumns.of(messages.iterator())) {
+            assertEquals(100, columns.size());
+            assertEquals(2, columns.getFormats().size());
+            for (int i = 0; i < messages.size(); i++) {
+                MQMessage expected = messages.get(i);
+                MQMessage actual = columns.toMessage(i);
+                assertEquals(expected.getMessageId(), actual.getMessageId());
+                assertEquals(expected.getCorrelationId(), actual.getCorrelationId());
+                assertEquals(expected.getTimestamp(), actual.getTimestamp());
+                assertEquals(expected.getPriority(), actual.getPriority());
+                assertEquals(expected.getFormat(), actual.getFormat());
+                assertArrayEquals(expected.getPayloadBytes(), actual.getPayloadBytes());
+                assertEquals(expected.getProperties(), actual.getProperties());
+            }
+            assertEquals("Zoë", columns.getPayloadText(7));
+        }
+    }
+    
+    @Test
+    @DisplayName("Columnar comparison matches the message list comparison")
+    public void testCompareColumns() {
+        List<MQMessage> queue1 = queue(1000, "MQSTR   ", "MQHRF2  ");
+        // Different dictionary order on Queue2
+        List<MQMessage> queue2 = queue(1000, "MQHRF2  ", "MQSTR   ");
+        queue2.get(10).setMessageId(String.format("%048X", 99_999));
+        queue2.get(20).setTimestamp(0L);
+        queue2.get(30).setPayload("{\"index\":\"other\"}");
+        queue2.get(40).setPayloadBytes("{\"index\":40}".getBytes(Charset.forName("IBM037")), 37);
+        queue2.get(50).getProperties().put("region", "APAC");
+        queue2.get(60).setPriority(9);
+        
+        ComparisonPlan plan = ComparisonPlan.all(100);
+        Map<ComparisonCheck, ComparisonResult> expected = MessageComparator.compare(plan, queue1, queue2);
+        try (MessageColumns columns1 = MessageColumns.of(queue1.iterator());
+             MessageColumns columns2 = MessageColumns.of(queue2.iterator())) {
+            Map<ComparisonCheck, ComparisonResult> actual = MessageComparator.compare(plan, columns1, columns2);
+            
+            assertEquals(expected.keySet(), actual.keySet());
+            expected.forEach((check, result) -> {
+                assertEquals(result.isPassed(), actual.get(check).isPassed(), check.name());
+                assertEquals(result.getMessage(), actual.get(check).getMessage(), check.name());
+                assertEquals(result.getDifferences(), actual.get(check).getDifferences(), check.name());
+            });
+            assertEquals(1000, MessageComparator.compareFormats(columns1, columns2).getTotalDifferences());
+        }
+    }
+    
+    @Test
+    @DisplayName("IDs that are not 48 hex digits are rejected instead of padded")
+    public void testInvalidIds() {
+        MQMessage text = message(0, "a", 1_000L);
+        text.setMessageId("ORDER-1");
+        MQMessage shortHex = message(1, "b", 1_000L);
+        shortHex.setCorrelationId("0A");
+        
+        try (MessageColumns columns = new MessageColumns()) {
+            assertThrows(IllegalArgumentException.class, () -> columns.add(text));
+            assertThrows(IllegalArgumentException.class, () -> columns.add(shortHex));
+            assertEquals(0, columns.size());
+        }
+    }
+}
\ No newline at end of file
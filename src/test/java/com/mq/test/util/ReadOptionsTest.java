@@ -0,0 +1,26 @@
+package com.mq.test.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadOptionsTest {
+    
+    @Test
+    @DisplayName("Plain reads stay outside syncpoint unless a batch size is given")
+    public void testSyncpointIsOptIn() {
+        assertFalse(ReadOptions.of(false).isSyncpoint());
+        assertFalse(ReadOptions.of(true).isSyncpoint());
+        assertTrue(new ReadOptions(false, ReadOptions.DEFAULT_BATCH_SIZE, false).isSyncpoint());
+        assertFalse(new ReadOptions(true, ReadOptions.DEFAULT_BATCH_SIZE, false).isSyncpoint());
+    }
+    
+    @Test
+    @DisplayName("Read-ahead is refused for syncpoint batches")
+    public void testReadAheadWithSyncpoint() {
+        assertThrows(IllegalArgumentException.class, () -> new ReadOptions(false, 100, true));
+        assertTrue(new ReadOptions(false, 0, true).isReadAhead());
+        assertTrue(new ReadOptions(true, 100, true).isReadAhead());
+    }
+}
\ No newline at end of file
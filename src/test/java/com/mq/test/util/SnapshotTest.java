@@ -0,0 +1,175 @@
+package com.mq.test.util;
+
+import com.mq.test.comparator.ComparisonCheck;
+import com.mq.test.comparator.ComparisonPlan;
+import com.mq.test.comparator.MessageComparator;
+import com.mq.test.comparator.SnapshotComparison;
+import com.mq.test.model.ComparisonResult;
+import com.mq.test.model.MQMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.mq.test.TestFixtures.message;
+import static com.mq.test.TestFixtures.queue;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTest {
+    
+    @Test
+    @DisplayName("Messages round-trip through a snapshot file")
+    public void testRoundTrip(@TempDir Path dir) throws Exception {
+        List<MQMessage> messages = queue(100);
+        MQMessage ebcdic = messages.get(42);
+        ebcdic.setPayloadBytes("Zoë".getBytes(Charset.forName("IBM037")), 37);
+        ebcdic.getProperties().put("region", "EMEA");
+        ebcdic.getProperties().put("attempt", 3);
+        ebcdic.getProperties().put("amount", 12.5d);
+        ebcdic.getProperties().put("urgent", true);
+        
+        Path path = dir.resolve("queue.snap");
+        assertEquals(100, SnapshotWriter.write(path, messages.iterator()));
+        
+        try (SnapshotReader reader = SnapshotReader.open(path)) {
+            assertTrue(reader.isComplete());
+            assertEquals(100, reader.size());
+            for (int i = 0; i < messages.size(); i++) {
+                MQMessage expected = messages.get(i);
+                MQMessage actual = reader.get(i);
+                assertEquals(expected.getMessageId(), actual.getMessageId());
+                assertEquals(expected.getCorrelationId(), actual.getCorrelationId());
+                assertEquals(expected.getTimestamp(), actual.getTimestamp());
+                assertEquals(expected.getPriority(), actual.getPriority());
+                assertEquals(expected.getFormat(), actual.getFormat());
+                assertEquals(expected.getCharacterSet(), actual.getCharacterSet());
+                assertArrayEquals(expected.getPayloadBytes(), actual.getPayloadBytes());
+                assertEquals(expected.getProperties(), actual.getProperties());
+            }
+            assertEquals("Zoë", reader.get(42).getPayload());
+        }
+    }
+    
+    @Test
+    @DisplayName("Snapshot comparison matches the in-memory comparison")
+    public void testCompareSnapshots(@TempDir Path dir) throws Exception {
+        List<MQMessage> queue1 = queue(500);
+        List<MQMessage> queue2 = queue(500);
+        queue2.get(17).setPayload("changed");
+        queue2.get(300).setPriority(9);
+        SnapshotWriter.write(dir.resolve("q1.snap"), queue1.iterator());
+        SnapshotWriter.write(dir.resolve("q2.snap"), queue2.iterator());
+        
+        ComparisonPlan plan = ComparisonPlan.all(5000);
+        Map<ComparisonCheck, ComparisonResult> expected = MessageComparator.compare(plan, queue1, queue2);
+        Map<ComparisonCheck, ComparisonResult> actual =
+            MessageComparator.compareSnapshots(plan, dir.resolve("q1.snap"), dir.resolve("q2.snap"));
+        
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((check, result) -> {
+            assertEquals(result.isPassed(), actual.get(check).isPassed(), check.name());
+            assertEquals(result.getDifferences(), actual.get(check).getDifferences(), check.name());
+        });
+        assertFalse(actual.get(ComparisonCheck.PAYLOAD).isPassed());
+    }
+    
+    @Test
+    @DisplayName("Only mismatching snapshot records are decoded")
+    public void testSnapshotComparisonDecodesMismatchesOnly(@TempDir Path dir) throws Exception {
+        List<MQMessage> queue1 = queue(1000);
+        List<MQMessage> queue2 = queue(1000);
+        queue2.get(10).setMessageId(String.format("%048X", 99_999));
+        queue2.get(20).setTimestamp(0L);
+        queue2.get(30).setPayload("{\"index\":\"other\"}");
+        queue2.get(40).setPayloadBytes("{\"index\":40}".getBytes(Charset.forName("IBM037")), 37);
+        queue2.get(50).getProperties().put("region", "APAC");
+        SnapshotWriter.write(dir.resolve("q1.snap"), queue1.iterator());
+        SnapshotWriter.write(dir.resolve("q2.snap"), queue2.iterator());
+        
+        ComparisonPlan plan = ComparisonPlan.all(5000);
+        try (SnapshotReader reader1 = SnapshotReader.open(dir.resolve("q1.snap"));
+             SnapshotReader reader2 = SnapshotReader.open(dir.resolve("q2.snap"))) {
+            SnapshotComparison comparison = SnapshotComparison.run(plan, reader1, reader2);
+            Map<ComparisonCheck, ComparisonResult> expected = MessageComparator.compare(plan, queue1, queue2);
+            
+            assertEquals(5, comparison.getDecodedPairs());
+            expected.forEach((check, result) -> {
+                ComparisonResult actual = comparison.getResults().get(check);
+                assertEquals(result.isPassed(), actual.isPassed(), check.name());
+                assertEquals(result.getDifferences(), actual.getDifferences(), check.name());
+            });
+        }
+    }
+    
+    @Test
+    @DisplayName("A snapshot cut off mid-write keeps every complete record")
+    public void testInterruptedSnapshot(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("partial.snap");
+        SnapshotWriter.write(path, queue(10).iterator());
+        
+        // Drop the index, the trailer and the end of the last record
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 10 * 8 - 16 - 5));
+        
+        try (SnapshotReader reader = SnapshotReader.open(path)) {
+            assertFalse(reader.isComplete());
+            assertEquals(9, reader.size());
+            assertEquals("{\"index\":8}", reader.get(8).getPayload());
+        }
+    }
+    
+    @Test
+    @DisplayName("An export that fails partway is not marked complete")
+    public void testFailedExport(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("failed.snap");
+        Iterator<MQMessage> messages = queue(10).iterator();
+        Iterator<MQMessage> failing = new Iterator<MQMessage>() {
+            private int read;
+            
+            @Override
+            public boolean hasNext() {
+                if (read == 6) {
+                    throw new IllegalStateException("Channel dropped");
+                }
+                return messages.hasNext();
+            }
+            
+            @Override
+            public MQMessage next() {
+                read++;
+                return messages.next();
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> SnapshotWriter.write(path, failing));
+        
+        try (SnapshotReader reader = SnapshotReader.open(path)) {
+            assertFalse(reader.isComplete());
+            assertEquals(6, reader.size());
+        }
+    }
+    
+    @Test
+    @DisplayName("IDs that are not 48 hex digits are rejected before anything is written")
+    public void testInvalidIds(@TempDir Path dir) throws Exception {
+        MQMessage text = message(0, "a", 1_000L);
+        text.setMessageId("ORDER-1");
+        MQMessage shortHex = message(1, "b", 1_000L);
+        shortHex.setCorrelationId("0A");
+        MQMessage missing = message(2, "c", 1_000L);
+        missing.setMessageId((String) null);
+        
+        try (SnapshotWriter writer = new SnapshotWriter(dir.resolve("ids.snap"))) {
+            for (MQMessage msg : List.of(text, shortHex, missing)) {
+                assertThrows(IllegalArgumentException.class, () -> writer.append(msg));
+            }
+            assertEquals(0, writer.getCount());
+        }
+    }
+}
\ No newline at end of file
@@ -18,8 +18,31 @@ public class MQMessageSimulator {
     private static final String HOST = "localhost";
     private static final int PORT = 1414;
     
+    // Concurrent senders (-Dsimulator.senders); with virtual threads, the number of connections
+    private static final int SENDERS = Integer.getInteger("simulator.senders", 4);
+    // Run each send task on its own virtual thread, Java 21+ (-Dsimulator.virtual.threads=true)
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("simulator.virtual.threads");
+    
     private final Random random = new Random();
-    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ExecutorService executor = newExecutor(SENDERS);
+    // One connection per sender (plus the generating thread), reused for every put
+    private final SimulatorConnectionPool connectionPool =
+        new SimulatorConnectionPool(QUEUE_MANAGER, HOST, PORT, CHANNEL, SENDERS + 1, 60_000L);
+    
+    /**
+     * A virtual thread per task when virtual threads are enabled and available, otherwise a fixed pool.
+     * Looked up reflectively so the simulator still compiles and runs on Java 17.
+     */
+    private static ExecutorService newExecutor(int platformThreads) {
+        if (VIRTUAL_THREADS) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threads require Java 21; using " + platformThreads + " platform threads");
+            }
+        }
+        return Executors.newFixedThreadPool(platformThreads);
+    }
     
     public static void main(String[] args) {
         MQMessageSimulator simulator = new MQMessageSimulator();
@@ -70,6 +93,7 @@ public class MQMessageSimulator {
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
+        connectionPool.close();
         System.out.println("Simulation complete!");
     }
     
@@ -295,19 +319,13 @@ public class MQMessageSimulator {
     }
     
     private void sendMessage(String queueName, String globalId, String message) {
-        MQQueueManager qMgr = null;
-        MQQueue queue = null;
+        SimulatorConnectionPool.Session session = null;
         
         try {
-            Hashtable<String, Object> props = new Hashtable<>();
-            props.put(MQConstants.HOST_NAME_PROPERTY, HOST);
-            props.put(MQConstants.PORT_PROPERTY, PORT);
-            props.put(MQConstants.CHANNEL_PROPERTY, CHANNEL);
-            
-            qMgr = new MQQueueManager(QUEUE_MANAGER, props);
+            session = connectionPool.borrow();
             
             int openOptions = MQConstants.MQOO_OUTPUT | MQConstants.MQOO_FAIL_IF_QUIESCING;
-            queue = qMgr.accessQueue(queueName, openOptions);
+            MQQueue queue = session.accessQueue(queueName, openOptions);
             
             MQMessage mqMessage = new MQMessage();
             mqMessage.format = MQConstants.MQFMT_STRING;
@@ -323,13 +341,15 @@ public class MQMessageSimulator {
             queue.put(mqMessage, pmo);
             
         } catch (Exception e) {
+            // Put errors such as a full queue leave the connection usable
+            if (session != null && e instanceof MQException
+                    && SimulatorConnectionPool.Session.isConnectionFailure((MQException) e)) {
+                session.invalidate();
+            }
             System.err.println("Error sending message to " + queueName + ": " + e.getMessage());
         } finally {
-            try {
-                if (queue != null) queue.close();
-                if (qMgr != null) qMgr.disconnect();
-            } catch (MQException e) {
-                // Ignore cleanup errors
+            if (session != null) {
+                connectionPool.release(session);
             }
         }
     }
@@ -465,3 +485,169 @@ class AlertManager {
         // Add email/webhook notification here
     }
 }
+
+/**
+ * Small pool of queue manager connections with cached queue handles, so the simulator measures
+ * messaging rather than a TCP and channel handshake per message. Sessions idle for more than a few
+ * seconds are checked with an MQINQ round trip on borrow, and disconnected after the idle timeout.
+ */
+class SimulatorConnectionPool {
+    private static final long PING_AFTER_IDLE_MS = 5_000L;
+    
+    private final String queueManager;
+    private final Hashtable<String, Object> props = new Hashtable<>();
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final Deque<Session> idle = new ArrayDeque<>();
+    private int open = 0;
+    private boolean closed = false;
+    
+    SimulatorConnectionPool(String queueManager, String host, int port, String channel, int maxSize, long idleTimeoutMs) {
+        this.queueManager = queueManager;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        props.put(MQConstants.HOST_NAME_PROPERTY, host);
+        props.put(MQConstants.PORT_PROPERTY, port);
+        props.put(MQConstants.CHANNEL_PROPERTY, channel);
+    }
+    
+    Session borrow() throws MQException, InterruptedException {
+        while (true) {
+            Session reused = null;
+            synchronized (this) {
+                while (true) {
+                    if (closed) {
+                        throw new IllegalStateException("Connection pool is closed");
+                    }
+                    Session session = idle.pollFirst();
+                    if (session != null) {
+                        if (session.isHealthy() && System.currentTimeMillis() - session.idleSince < idleTimeoutMs) {
+                            reused = session;
+                            break;
+                        }
+                        open--;
+                        session.disconnect();
+                        continue;
+                    }
+                    if (open < maxSize) {
+                        open++;
+                        break;
+                    }
+                    wait();
+                }
+            }
+            if (reused == null) {
+                break;
+            }
+            // isConnected() does not notice a dropped channel, so prove it with a round trip unless the
+            // session was just returned; a busy sender reuses sessions without any extra round trip
+            if (System.currentTimeMillis() - reused.idleSince < PING_AFTER_IDLE_MS || reused.ping()) {
+                return reused;
+            }
+            synchronized (this) {
+                open--;
+                notifyAll();
+            }
+            reused.disconnect();
+        }
+        try {
+            return new Session(new MQQueueManager(queueManager, props));
+        } catch (MQException e) {
+            synchronized (this) {
+                open--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+    
+    synchronized void release(Session session) {
+        if (closed || session.invalid || !session.isHealthy()) {
+            open--;
+            session.disconnect();
+        } else {
+            session.idleSince = System.currentTimeMillis();
+            idle.addFirst(session);
+        }
+        notifyAll();
+    }
+    
+    synchronized void close() {
+        closed = true;
+        for (Session session : idle) {
+            session.disconnect();
+        }
+        open -= idle.size();
+        idle.clear();
+        notifyAll();
+    }
+    
+    static class Session {
+        private final MQQueueManager qMgr;
+        private final Map<String, MQQueue> queues = new HashMap<>();
+        private boolean invalid = false;
+        private long idleSince;
+        
+        Session(MQQueueManager qMgr) {
+            this.qMgr = qMgr;
+        }
+        
+        MQQueue accessQueue(String queueName, int openOptions) throws MQException {
+            String key = queueName + "|" + openOptions;
+            MQQueue queue = queues.get(key);
+            if (queue == null || !queue.isOpen()) {
+                queue = qMgr.accessQueue(queueName, openOptions);
+                queues.put(key, queue);
+            }
+            return queue;
+        }
+        
+        void invalidate() {
+            invalid = true;
+        }
+        
+        boolean isHealthy() {
+            return !invalid && qMgr.isConnected();
+        }
+        
+        boolean ping() {
+            try {
+                qMgr.inquire(new int[] { MQConstants.MQIA_COMMAND_LEVEL }, new int[1], new byte[0]);
+                return true;
+            } catch (MQException e) {
+                return !isConnectionFailure(e);
+            }
+        }
+        
+        static boolean isConnectionFailure(MQException e) {
+            switch (e.reasonCode) {
+                case MQConstants.MQRC_CONNECTION_BROKEN:
+                case MQConstants.MQRC_Q_MGR_NOT_AVAILABLE:
+                case MQConstants.MQRC_Q_MGR_QUIESCING:
+                case MQConstants.MQRC_Q_MGR_STOPPING:
+                case MQConstants.MQRC_CONNECTION_QUIESCING:
+                case MQConstants.MQRC_CONNECTION_STOPPING:
+                case MQConstants.MQRC_HCONN_ERROR:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        
+        void disconnect() {
+            for (MQQueue queue : queues.values()) {
+                try {
+                    queue.close();
+                } catch (MQException e) {
+                    // Ignore cleanup errors
+                }
+            }
+            queues.clear();
+            try {
+                qMgr.disconnect();
+            } catch (MQException e) {
+                // Ignore cleanup errors
+            }
+        }
+    }
+}
\ No newline at end of file
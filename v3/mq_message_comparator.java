@@ -7,6 +7,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -27,11 +28,25 @@ public class MQMessageComparator {
     // Timeout configurations
     private static final long MESSAGE_WAIT_TIMEOUT_MS = 30000; // 30 seconds
     private static final long PAIRING_TIMEOUT_MS = 60000; // 60 seconds
+    private static final int PAIRING_SHARDS = 64; // power of two
     private static final long REPORT_INTERVAL_MS = 10000; // 10 seconds
     
+    // Consumers per output queue, each on its own connection; above 1, arrivals are no longer in queue order
+    // (-Dcomparator.consumers.per.queue)
+    private static final int CONSUMERS_PER_QUEUE = Integer.getInteger("comparator.consumers.per.queue", 1);
+    // GETs committed per syncpoint batch; 0 gets outside syncpoint (-Dcomparator.get.batch.size)
+    private static final int GET_BATCH_SIZE = Integer.getInteger("comparator.get.batch.size", 0);
+    // Run listeners and report writers on virtual threads, Java 21+ (-Dcomparator.virtual.threads=true)
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("comparator.virtual.threads");
+    
+    // Duplicate detection window: keys are remembered for at least this long, or until this many newer keys arrive
+    // (-Dcomparator.duplicate.window.ms, -Dcomparator.duplicate.window.max.keys)
+    private static final long DUPLICATE_WINDOW_MS = Long.getLong("comparator.duplicate.window.ms", 10 * 60000L); // 10 minutes
+    private static final int DUPLICATE_WINDOW_MAX_KEYS = Integer.getInteger("comparator.duplicate.window.max.keys", 1_000_000);
+    
     // Concurrent data structures
-    private final ConcurrentHashMap<String, MessagePair> messagePairs = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Long> messageTimestamps = new ConcurrentHashMap<>();
+    private final PairingTable messagePairs = new PairingTable(PAIRING_SHARDS, PAIRING_TIMEOUT_MS);
+    private final DuplicateWindow recentKeys = new DuplicateWindow(DUPLICATE_WINDOW_MS, DUPLICATE_WINDOW_MAX_KEYS);
     private final ConcurrentLinkedQueue<ComparisonResult> results = new ConcurrentLinkedQueue<>();
     
     // Statistics
@@ -43,23 +58,57 @@ public class MQMessageComparator {
     private final AtomicInteger duplicatesDetected = new AtomicInteger(0);
     
     private volatile boolean running = true;
-    private final ExecutorService executor = Executors.newFixedThreadPool(5);
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    // Listeners for both queues plus the orphan expiry
+    private final ExecutorService executor = newExecutor(2 * CONSUMERS_PER_QUEUE + 1);
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, threadFactory());
     
     public static void main(String[] args) {
         MQMessageComparator comparator = new MQMessageComparator();
         comparator.start();
     }
     
+    /**
+     * A virtual thread per task when virtual threads are enabled and available, otherwise a fixed pool
+     */
+    private static ExecutorService newExecutor(int platformThreads) {
+        if (VIRTUAL_THREADS) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threads require Java 21; using " + platformThreads + " platform threads");
+            }
+        }
+        return Executors.newFixedThreadPool(platformThreads);
+    }
+    
+    /**
+     * Virtual thread factory when virtual threads are enabled and available, otherwise the default factory.
+     * Looked up reflectively so the comparator still compiles and runs on Java 17.
+     */
+    private static ThreadFactory threadFactory() {
+        if (VIRTUAL_THREADS) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                // Reported by newExecutor
+            }
+        }
+        return Executors.defaultThreadFactory();
+    }
+    
     public void start() {
         System.out.println("Starting MQ Message Comparator...");
         
-        // Start message listeners
-        executor.submit(() -> listenToQueue(LEGACY_OUT_QUEUE, MessageSource.LEGACY));
-        executor.submit(() -> listenToQueue(NEW_OUT_QUEUE, MessageSource.NEW));
+        // Start message listeners; pairing is keyed by global ID, so consumers may take messages in any order
+        for (int i = 1; i <= CONSUMERS_PER_QUEUE; i++) {
+            int consumer = i;
+            executor.submit(() -> listenToQueue(LEGACY_OUT_QUEUE, MessageSource.LEGACY, consumer));
+            executor.submit(() -> listenToQueue(NEW_OUT_QUEUE, MessageSource.NEW, consumer));
+        }
         
-        // Start timeout checker
-        scheduler.scheduleAtFixedRate(this::checkTimeouts, 5, 5, TimeUnit.SECONDS);
+        // Start orphan expiry
+        executor.submit(this::expireOrphans);
         
         // Start HTML report generator
         scheduler.scheduleAtFixedRate(this::generateHTMLReport, 0, REPORT_INTERVAL_MS, TimeUnit.MILLISECONDS);
@@ -74,9 +123,11 @@ public class MQMessageComparator {
         }));
     }
     
-    private void listenToQueue(String queueName, MessageSource source) {
+    private void listenToQueue(String queueName, MessageSource source, int consumer) {
         MQQueueManager qMgr = null;
         MQQueue queue = null;
+        int uncommitted = 0;
+        boolean stopped = false;
         
         try {
             // Connect to MQ
@@ -92,14 +143,20 @@ public class MQMessageComparator {
             
             MQGetMessageOptions gmo = new MQGetMessageOptions();
             gmo.options = MQConstants.MQGMO_WAIT | MQConstants.MQGMO_FAIL_IF_QUIESCING;
+            if (GET_BATCH_SIZE > 0) {
+                gmo.options |= MQConstants.MQGMO_SYNCPOINT;
+            }
             gmo.waitInterval = 5000; // 5 seconds
             
-            System.out.println(source + " listener started on queue: " + queueName);
+            System.out.println(source + " listener " + consumer + " started on queue: " + queueName);
             
             while (running) {
                 try {
                     MQMessage message = new MQMessage();
                     queue.get(message, gmo);
+                    if (GET_BATCH_SIZE > 0) {
+                        uncommitted++;
+                    }
                     
                     byte[] msgData = new byte[message.getMessageLength()];
                     message.readFully(msgData);
@@ -113,23 +170,43 @@ public class MQMessageComparator {
                     // Parse global identifier from header
                     String globalId = parseGlobalIdentifier(msgContent);
                     
-                    processMessage(globalId, correlationId, msgContent, source);
+                    // A backed-out batch comes back with a backout count; its messages were already processed
+                    processMessage(globalId, correlationId, msgContent, source, message.backoutCount > 0);
+                    
+                    // Commit only after processing, so an interrupted batch is redelivered rather than lost
+                    if (GET_BATCH_SIZE > 0 && uncommitted >= GET_BATCH_SIZE) {
+                        qMgr.commit();
+                        uncommitted = 0;
+                    }
                     
                 } catch (MQException mqe) {
                     if (mqe.reasonCode == MQConstants.MQRC_NO_MSG_AVAILABLE) {
-                        // No message available, continue
+                        // No message available, commit a partial batch and continue
+                        if (uncommitted > 0) {
+                            qMgr.commit();
+                            uncommitted = 0;
+                        }
                         Thread.sleep(100);
                     } else {
                         System.err.println(source + " MQ Error: " + mqe.getMessage());
                     }
                 }
             }
+            stopped = true;
             
         } catch (Exception e) {
             System.err.println(source + " Fatal error: " + e.getMessage());
             e.printStackTrace();
         } finally {
             try {
+                // disconnect() commits, so a batch interrupted by a failure must be backed out first
+                if (qMgr != null && uncommitted > 0) {
+                    if (stopped) {
+                        qMgr.commit();
+                    } else {
+                        qMgr.backout();
+                    }
+                }
                 if (queue != null) queue.close();
                 if (qMgr != null) qMgr.disconnect();
             } catch (MQException e) {
@@ -147,48 +224,57 @@ public class MQMessageComparator {
         return null;
     }
     
-    private void processMessage(String globalId, String correlationId, String content, MessageSource source) {
+    private void processMessage(String globalId, String correlationId, String content, MessageSource source,
+                                boolean redelivered) {
         if (globalId == null) {
             System.err.println("Invalid message - no global identifier found");
             return;
         }
         
-        totalMessages.incrementAndGet();
         long timestamp = System.currentTimeMillis();
+        String key = globalId + "_" + source;
+        boolean seen = recentKeys.add(key, timestamp);
+        if (redelivered && seen) {
+            // Already counted and paired before its batch was backed out
+            return;
+        }
+        totalMessages.incrementAndGet();
         
         // Check for duplicates
-        String key = globalId + "_" + source;
-        if (messageTimestamps.containsKey(key)) {
+        if (seen) {
             duplicatesDetected.incrementAndGet();
             System.out.println("DUPLICATE detected: " + globalId + " from " + source);
         }
-        messageTimestamps.put(key, timestamp);
-        
-        // Get or create message pair
-        MessagePair pair = messagePairs.computeIfAbsent(globalId, k -> new MessagePair(globalId));
         
-        synchronized (pair) {
-            if (source == MessageSource.LEGACY) {
-                if (pair.legacyMessage != null) {
-                    duplicatesDetected.incrementAndGet();
-                    System.out.println("DUPLICATE LEGACY: " + globalId);
-                }
-                pair.legacyMessage = content;
-                pair.legacyTimestamp = timestamp;
-            } else {
-                if (pair.newMessage != null) {
-                    duplicatesDetected.incrementAndGet();
-                    System.out.println("DUPLICATE NEW: " + globalId);
-                }
-                pair.newMessage = content;
-                pair.newTimestamp = timestamp;
+        // Add to the pending pair, or complete and remove it, in one atomic step
+        boolean[] duplicate = new boolean[1];
+        MessagePair[] created = new MessagePair[1];
+        MessagePair[] completed = new MessagePair[1];
+        messagePairs.compute(globalId, (id, pair) -> {
+            if (pair == null) {
+                pair = new MessagePair(id);
+                created[0] = pair;
             }
-            
-            // If both messages received, compare immediately
+            duplicate[0] = !pair.set(source, content, timestamp);
             if (pair.isComplete()) {
-                compareAndRecord(pair);
-                messagePairs.remove(globalId);
+                completed[0] = pair;
+                return null;
             }
+            return pair;
+        });
+        // Deadlines are tracked outside the compute, so the shard's bin lock is never held for it
+        if (created[0] != null) {
+            messagePairs.track(created[0]);
+        }
+        
+        if (duplicate[0]) {
+            duplicatesDetected.incrementAndGet();
+            System.out.println("DUPLICATE " + source + ": " + globalId);
+        }
+        // If both messages received, compare immediately
+        if (completed[0] != null) {
+            messagePairs.untrack(completed[0]);
+            compareAndRecord(completed[0]);
         }
     }
     
@@ -226,42 +312,50 @@ public class MQMessageComparator {
         }
     }
     
-    private void checkTimeouts() {
-        long now = System.currentTimeMillis();
-        List<String> timedOut = new ArrayList<>();
-        
-        for (Map.Entry<String, MessagePair> entry : messagePairs.entrySet()) {
-            MessagePair pair = entry.getValue();
-            long oldestTimestamp = Math.min(
-                pair.legacyTimestamp == 0 ? Long.MAX_VALUE : pair.legacyTimestamp,
-                pair.newTimestamp == 0 ? Long.MAX_VALUE : pair.newTimestamp
-            );
-            
-            if (oldestTimestamp != Long.MAX_VALUE && (now - oldestTimestamp) > PAIRING_TIMEOUT_MS) {
-                timedOut.add(entry.getKey());
-                
-                ComparisonResult result = new ComparisonResult();
-                result.globalId = pair.globalId;
-                result.timestamp = LocalDateTime.now();
-                result.legacyMessage = pair.legacyMessage;
-                result.newMessage = pair.newMessage;
-                result.legacyTimestamp = pair.legacyTimestamp;
-                result.newTimestamp = pair.newTimestamp;
-                
-                if (pair.legacyMessage != null && pair.newMessage == null) {
-                    result.status = ComparisonStatus.ORPHANED_LEGACY;
-                    orphanedLegacy.incrementAndGet();
-                } else if (pair.newMessage != null && pair.legacyMessage == null) {
-                    result.status = ComparisonStatus.ORPHANED_NEW;
-                    orphanedNew.incrementAndGet();
+    /**
+     * Report each incomplete pair as orphaned at its pairing deadline, sleeping until the earliest one
+     */
+    private void expireOrphans() {
+        try {
+            while (running) {
+                long now = System.currentTimeMillis();
+                MessagePair pair;
+                while ((pair = messagePairs.pollExpired(now)) != null) {
+                    expire(pair);
+                }
+                // Pairs created from now on are due no earlier than now + PAIRING_TIMEOUT_MS; the cap
+                // only serves to notice shutdown
+                long wait = Math.min(messagePairs.nextDeadline() - now, 1000);
+                if (wait > 0) {
+                    Thread.sleep(wait);
                 }
-                
-                results.add(result);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Record a pair that expired; it has already been removed from the pairing table
+     */
+    private void expire(MessagePair pair) {
+        ComparisonResult result = new ComparisonResult();
+        result.globalId = pair.globalId;
+        result.timestamp = LocalDateTime.now();
+        result.legacyMessage = pair.legacyMessage;
+        result.newMessage = pair.newMessage;
+        result.legacyTimestamp = pair.legacyTimestamp;
+        result.newTimestamp = pair.newTimestamp;
+        
+        if (pair.legacyMessage != null) {
+            result.status = ComparisonStatus.ORPHANED_LEGACY;
+            orphanedLegacy.incrementAndGet();
+        } else {
+            result.status = ComparisonStatus.ORPHANED_NEW;
+            orphanedNew.incrementAndGet();
         }
         
-        // Remove timed out pairs
-        timedOut.forEach(messagePairs::remove);
+        results.add(result);
     }
     
     private String findDifferences(String legacy, String newMsg) {
@@ -436,21 +530,244 @@ public class MQMessageComparator {
     }
     
     static class MessagePair {
-        String globalId;
+        final String globalId;
         String legacyMessage;
         String newMessage;
         long legacyTimestamp;
         long newTimestamp;
         
+        // Deadline list of the pair's shard, guarded by the shard
+        long deadline;
+        MessagePair previous;
+        MessagePair next;
+        boolean linked;
+        boolean done;
+        
         MessagePair(String globalId) {
             this.globalId = globalId;
         }
         
+        /**
+         * Store the message from one source
+         *
+         * @return false if a message from that source was already stored; it is replaced
+         */
+        boolean set(MessageSource source, String content, long timestamp) {
+            boolean first;
+            if (source == MessageSource.LEGACY) {
+                first = legacyMessage == null;
+                legacyMessage = content;
+                legacyTimestamp = timestamp;
+            } else {
+                first = newMessage == null;
+                newMessage = content;
+                newTimestamp = timestamp;
+            }
+            return first;
+        }
+        
         boolean isComplete() {
             return legacyMessage != null && newMessage != null;
         }
     }
     
+    /**
+     * Pending pairs striped over shards by global ID hash. A pair is only changed inside a single
+     * {@code compute} on its shard, so the second message completes and removes it atomically with no
+     * lock on the pair itself. Each shard also links its pending pairs in deadline order; a completed
+     * pair is unlinked at once, so only pending pairs are ever held.
+     */
+    static class PairingTable {
+        private final List<Shard> shards = new ArrayList<>();
+        private final int mask;
+        private final long timeoutMs;
+        
+        PairingTable(int shardCount, long timeoutMs) {
+            if (Integer.bitCount(shardCount) != 1) {
+                throw new IllegalArgumentException("Shard count must be a power of two: " + shardCount);
+            }
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new Shard());
+            }
+            this.mask = shardCount - 1;
+            this.timeoutMs = timeoutMs;
+        }
+        
+        private Shard shard(String globalId) {
+            int h = globalId.hashCode();
+            return shards.get((h ^ (h >>> 16)) & mask);
+        }
+        
+        MessagePair compute(String globalId, BiFunction<String, MessagePair, MessagePair> update) {
+            return shard(globalId).pairs.compute(globalId, update);
+        }
+        
+        /**
+         * Start the pairing deadline of a new pair, unless it was completed already
+         */
+        void track(MessagePair pair) {
+            shard(pair.globalId).link(pair, timeoutMs);
+        }
+        
+        /**
+         * Stop the deadline of a pair that was completed and removed
+         */
+        void untrack(MessagePair pair) {
+            shard(pair.globalId).unlink(pair);
+        }
+        
+        /**
+         * Remove and return a pending pair whose deadline has passed, or null if there is none
+         */
+        MessagePair pollExpired(long now) {
+            for (Shard shard : shards) {
+                MessagePair pair;
+                while ((pair = shard.pollExpired(now)) != null) {
+                    // Fails only if the pair was completed while it expired; its completion wins
+                    if (shard.pairs.remove(pair.globalId, pair)) {
+                        return pair;
+                    }
+                }
+            }
+            return null;
+        }
+        
+        /**
+         * Earliest deadline of any pending pair, or Long.MAX_VALUE if there is none
+         */
+        long nextDeadline() {
+            long next = Long.MAX_VALUE;
+            for (Shard shard : shards) {
+                next = Math.min(next, shard.headDeadline());
+            }
+            return next;
+        }
+        
+        int size() {
+            int size = 0;
+            for (Shard shard : shards) {
+                size += shard.pairs.size();
+            }
+            return size;
+        }
+        
+        /**
+         * Pairs of one shard, plus a list of the pending ones linked in deadline order. Deadlines are
+         * taken under the shard lock with a constant timeout, so appending keeps the list sorted.
+         */
+        private static final class Shard {
+            final ConcurrentHashMap<String, MessagePair> pairs = new ConcurrentHashMap<>();
+            private MessagePair head;
+            private MessagePair tail;
+            
+            synchronized void link(MessagePair pair, long timeoutMs) {
+                if (pair.done) {
+                    return;
+                }
+                pair.deadline = System.currentTimeMillis() + timeoutMs;
+                pair.previous = tail;
+                if (tail == null) {
+                    head = pair;
+                } else {
+                    tail.next = pair;
+                }
+                tail = pair;
+                pair.linked = true;
+            }
+            
+            synchronized void unlink(MessagePair pair) {
+                pair.done = true;
+                if (!pair.linked) {
+                    return;
+                }
+                if (pair.previous == null) {
+                    head = pair.next;
+                } else {
+                    pair.previous.next = pair.next;
+                }
+                if (pair.next == null) {
+                    tail = pair.previous;
+                } else {
+                    pair.next.previous = pair.previous;
+                }
+                pair.previous = null;
+                pair.next = null;
+                pair.linked = false;
+            }
+            
+            synchronized MessagePair pollExpired(long now) {
+                if (head == null || head.deadline > now) {
+                    return null;
+                }
+                MessagePair pair = head;
+                unlink(pair);
+                return pair;
+            }
+            
+            synchronized long headDeadline() {
+                return head == null ? Long.MAX_VALUE : head.deadline;
+            }
+        }
+    }
+    
+    /**
+     * Keys seen within a sliding window, held in two generations of hash sets. The current generation
+     * becomes the previous one when it is older than the horizon or holds the maximum number of keys,
+     * and the old previous generation is dropped, so memory stays bounded by twice the maximum. A key
+     * is found again for between one and two horizons after it was added; there are no false positives.
+     */
+    static class DuplicateWindow {
+        private final long horizonMs;
+        private final int maxKeys;
+        // Both generations are swapped together, so a reader never sees one rotation's current with another's previous
+        private volatile Generations generations;
+        
+        DuplicateWindow(long horizonMs, int maxKeys) {
+            this.horizonMs = horizonMs;
+            this.maxKeys = maxKeys;
+            this.generations = new Generations(ConcurrentHashMap.newKeySet(), ConcurrentHashMap.newKeySet(),
+                System.currentTimeMillis());
+        }
+        
+        /**
+         * Record a key
+         *
+         * @return true if the key was already seen within the window
+         */
+        boolean add(String key, long now) {
+            Generations window = generations;
+            if (window.isFull(now)) {
+                window = rotate(now);
+            }
+            return !window.current.add(key) || window.previous.contains(key);
+        }
+        
+        private synchronized Generations rotate(long now) {
+            Generations window = generations;
+            if (window.isFull(now)) {
+                window = new Generations(ConcurrentHashMap.newKeySet(), window.current, now);
+                generations = window;
+            }
+            return window;
+        }
+        
+        private final class Generations {
+            private final Set<String> current;
+            private final Set<String> previous;
+            private final long currentStart;
+            
+            Generations(Set<String> current, Set<String> previous, long currentStart) {
+                this.current = current;
+                this.previous = previous;
+                this.currentStart = currentStart;
+            }
+            
+            boolean isFull(long now) {
+                return now - currentStart >= horizonMs || current.size() >= maxKeys;
+            }
+        }
+    }
+    
     static class ComparisonResult {
         String globalId;
         LocalDateTime timestamp;